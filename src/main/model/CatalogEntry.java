@@ -0,0 +1,63 @@
+package model;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+
+// Represents a view of one song of a SongCatalog: it holds no data of its own, so it is only valid until songs
+// before it are added or removed.
+public class CatalogEntry {
+    private final SongCatalog catalog;
+    private final int index;
+
+    // EFFECTS: initializes a view of the song at index of catalog
+    CatalogEntry(SongCatalog catalog, int index) {
+        this.catalog = catalog;
+        this.index = index;
+    }
+
+    // EFFECTS: returns the index of the song in its catalog
+    public int getIndex() {
+        return index;
+    }
+
+    // EFFECTS: returns the path of the song
+    public String getString() {
+        return catalog.getString(index);
+    }
+
+    // EFFECTS: returns how long the song is in microseconds
+    public long length() {
+        return catalog.getDuration(index);
+    }
+
+    // EFFECTS: returns the format of the song
+    public AudioFormat getFormat() {
+        return catalog.getFormat(index);
+    }
+
+    // EFFECTS: returns whether the song is set to loop
+    public boolean isLooping() {
+        return (catalog.getFlags(index) & SongCatalog.FLAG_LOOPING) != 0;
+    }
+
+    // EFFECTS: returns whether the song is muted
+    public boolean isMuted() {
+        return (catalog.getFlags(index) & SongCatalog.FLAG_MUTED) != 0;
+    }
+
+    // EFFECTS: returns a playable sound file of the song, looping and muted as set in the catalog
+    //          throws IllegalArgumentException if the file no longer exists
+    //          throws UnsupportedAudioFileException if the file is not supported
+    //          throws IOException if the header cannot be read
+    public SoundFile toSoundFile() throws IOException, UnsupportedAudioFileException {
+        SoundFile sf = new SoundFile(getString());
+        if (isLooping()) {
+            sf.loop();
+        }
+        if (isMuted()) {
+            sf.mute();
+        }
+        return sf;
+    }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Represents a directory in the tree of directories shared by all entry paths. Each node is one segment of a
+// path (with the separator before it) under its parent, so a directory prefix is stored once however many
+// files are in it. Nodes are never removed; the tree can be used from any thread.
+public final class DirectoryNode {
+    public static final DirectoryNode ROOT = new DirectoryNode(null, "");
+
+    private final DirectoryNode parent;
+    private final String segment; // this directory's part of the path, including the separator before it
+    private final ConcurrentHashMap<String, DirectoryNode> children = new ConcurrentHashMap<>();
+    private volatile String path; // the full directory path, built on first use
+
+    // EFFECTS: initializes a node for segment under parent (null for the root)
+    private DirectoryNode(DirectoryNode parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the node of directory path dir, adding the nodes missing on the way
+    public static DirectoryNode of(String dir) {
+        return walk(dir, true);
+    }
+
+    // EFFECTS: returns the node of directory path dir, or null if no entry path has used it yet
+    public static DirectoryNode find(String dir) {
+        return walk(dir, false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the node of directory path dir, adding missing nodes if create (otherwise returning null
+    //          when one is missing)
+    private static DirectoryNode walk(String dir, boolean create) {
+        DirectoryNode node = ROOT;
+        int start = 0;
+        for (int i = 1; i <= dir.length() && node != null; i++) {
+            if (i == dir.length() || EntryPath.isSeparator(dir.charAt(i))) {
+                node = node.child(dir.substring(start, i), create);
+                start = i;
+            }
+        }
+        return node;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the child node of given segment, adding it if create (otherwise returning null if missing)
+    private DirectoryNode child(String part, boolean create) {
+        return create ? children.computeIfAbsent(part, s -> new DirectoryNode(this, s)) : children.get(part);
+    }
+
+    // EFFECTS: returns the parent directory, null for the root
+    public DirectoryNode getParent() {
+        return parent;
+    }
+
+    // EFFECTS: returns the full path of this directory ("" for the root)
+    public String getPath() {
+        String built = path;
+        if (built == null) {
+            built = parent == null ? segment : parent.getPath() + segment;
+            path = built;
+        }
+        return built;
+    }
+
+    @Override
+    // EFFECTS: returns the full path of this directory
+    public String toString() {
+        return getPath();
+    }
+}
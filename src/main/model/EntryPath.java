@@ -0,0 +1,89 @@
+package model;
+
+import java.io.File;
+
+// Represents the path of a playlist entry as its directory (a node of the shared directory tree) and its file
+// name. Only the name is stored per entry; the full path is built when asked for. Two entry paths are equal
+// when they have the same directory node and name, which is cheaper to check than comparing full paths.
+public final class EntryPath {
+    private final DirectoryNode directory;
+    private final String name; // file name, with the separator before it (if any)
+    private final int hash;
+
+    // EFFECTS: initializes the path of file name in directory
+    private EntryPath(DirectoryNode directory, String name) {
+        this.directory = directory;
+        this.name = name;
+        hash = 31 * System.identityHashCode(directory) + name.hashCode();
+    }
+
+    // MODIFIES: DirectoryNode.ROOT
+    // EFFECTS: returns the entry path of path, adding its directories to the shared tree if needed
+    public static EntryPath of(String path) {
+        int split = lastSeparator(path);
+        return new EntryPath(DirectoryNode.of(path.substring(0, split)), path.substring(split));
+    }
+
+    // EFFECTS: returns the entry path of path, or null if its directory has never been used by an entry path
+    //          (in which case no entry can have this path)
+    public static EntryPath find(String path) {
+        int split = lastSeparator(path);
+        DirectoryNode directory = DirectoryNode.find(path.substring(0, split));
+        return directory == null ? null : new EntryPath(directory, path.substring(split));
+    }
+
+    // EFFECTS: returns the index of the last separator in path, 0 if there is none
+    private static int lastSeparator(String path) {
+        for (int i = path.length() - 1; i > 0; i--) {
+            if (isSeparator(path.charAt(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // EFFECTS: returns whether c separates the directories of a path
+    static boolean isSeparator(char c) {
+        return c == '/' || c == File.separatorChar;
+    }
+
+    // EFFECTS: returns the directory of this path
+    public DirectoryNode getDirectory() {
+        return directory;
+    }
+
+    // EFFECTS: returns the file name of this path (without its directory)
+    public String getFileName() {
+        return name.isEmpty() || !isSeparator(name.charAt(0)) ? name : name.substring(1);
+    }
+
+    // EFFECTS: returns a new file instance of this path
+    public File toFile() {
+        return new File(toString());
+    }
+
+    @Override
+    // EFFECTS: returns the full path, exactly as it was given
+    public String toString() {
+        return directory.getPath() + name;
+    }
+
+    @Override
+    // EFFECTS: returns whether o is the same path
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntryPath)) {
+            return false;
+        }
+        EntryPath other = (EntryPath) o;
+        return directory == other.directory && name.equals(other.name);
+    }
+
+    @Override
+    // EFFECTS: returns a hash code of the path
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,309 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Represents an immutable sequence of values, each with a long label; labels increase along the sequence.
+// It is a treap whose nodes know their subtree sizes, so the value at an index, the index of a label, and
+// inserting or removing (ranges of) values all take O(log n) time. Changes return a new tree that shares all
+// but O(log n) nodes with the old one, which stays valid.
+public final class EntryTree<T> implements Iterable<T> {
+    private static final EntryTree<?> EMPTY = new EntryTree<>(null);
+
+    private final Node<T> root;
+
+    // Represents one node: a value, its label, and the subtrees of the values before and after it
+    private static final class Node<T> {
+        private final long label;
+        private final T value;
+        private final int priority; // heap order of the treap, derived from the label
+        private final int size; // number of nodes in this subtree
+        private final Node<T> left;
+        private final Node<T> right;
+
+        // EFFECTS: initializes a node of value with label over the given subtrees
+        private Node(long label, T value, Node<T> left, Node<T> right) {
+            this.label = label;
+            this.value = value;
+            this.priority = priorityOf(label);
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+            this.left = left;
+            this.right = right;
+        }
+
+        // EFFECTS: returns a copy of this node over the given subtrees
+        private Node<T> with(Node<T> newLeft, Node<T> newRight) {
+            return new Node<>(label, value, newLeft, newRight);
+        }
+    }
+
+    // EFFECTS: initializes a tree with given root
+    private EntryTree(Node<T> root) {
+        this.root = root;
+    }
+
+    // EFFECTS: returns the empty tree
+    @SuppressWarnings("unchecked")
+    public static <T> EntryTree<T> empty() {
+        return (EntryTree<T>) EMPTY;
+    }
+
+    // EFFECTS: returns a tree of values, in order, under labels 0, gap, 2 * gap, ...; takes O(n) time, where
+    //          inserting them one by one would take O(n log n)
+    //          throws IllegalArgumentException if gap is not positive
+    public static <T> EntryTree<T> of(List<? extends T> values, long gap) {
+        if (gap <= 0) {
+            throw new IllegalArgumentException("Gap: " + gap);
+        }
+        int n = values.size();
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int root = shape(n, gap, left, right);
+        return new EntryTree<>(build(values, gap, left, right, root));
+    }
+
+    // MODIFIES: left, right
+    // EFFECTS: finds the treap of n values under labels 0, gap, 2 * gap, ... (the one insert would make): sets
+    //          the index of the left and right child of each value (-1 for none), and returns that of the root
+    private static int shape(int n, long gap, int[] left, int[] right) {
+        int[] spine = new int[n]; // the values on the path from the root to the last value so far
+        int top = 0;
+        for (int i = 0; i < n; i++) {
+            int priority = priorityOf(i * gap);
+            int last = -1;
+            while (top > 0 && priorityOf(spine[top - 1] * gap) < priority) {
+                last = spine[--top];
+            }
+            left[i] = last;
+            right[i] = -1;
+            if (top > 0) {
+                right[spine[top - 1]] = i;
+            }
+            spine[top++] = i;
+        }
+        return top == 0 ? -1 : spine[0];
+    }
+
+    // EFFECTS: returns the subtree of the value at index i of values and its descendants (as found by shape)
+    private static <T> Node<T> build(List<? extends T> values, long gap, int[] left, int[] right, int i) {
+        if (i == -1) {
+            return null;
+        }
+        Node<T> leftChild = build(values, gap, left, right, left[i]);
+        return new Node<>(i * gap, values.get(i), leftChild, build(values, gap, left, right, right[i]));
+    }
+
+    // EFFECTS: returns the number of values
+    public int size() {
+        return sizeOf(root);
+    }
+
+    // EFFECTS: returns whether there are no values
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // EFFECTS: returns the value at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, size())
+    public T get(int i) {
+        return nodeAt(i).value;
+    }
+
+    // EFFECTS: returns the label of the value at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, size())
+    public long labelAt(int i) {
+        return nodeAt(i).label;
+    }
+
+    // EFFECTS: returns the index of the value with given label, -1 if there is none
+    public int indexOf(long label) {
+        int index = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (label < node.label) {
+                node = node.left;
+            } else if (label > node.label) {
+                index += sizeOf(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + sizeOf(node.left);
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: returns this tree with value added under label, in label order
+    //          throws IllegalArgumentException if the label is already used
+    public EntryTree<T> insert(long label, T value) {
+        int index = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (label == node.label) {
+                throw new IllegalArgumentException("Label already used: " + label);
+            } else if (label < node.label) {
+                node = node.left;
+            } else {
+                index += sizeOf(node.left) + 1;
+                node = node.right;
+            }
+        }
+        Node<T>[] parts = split(root, index);
+        return new EntryTree<>(merge(merge(parts[0], new Node<>(label, value, null, null)), parts[1]));
+    }
+
+    // EFFECTS: returns this tree without the value with given label (this tree if there is none)
+    public EntryTree<T> remove(long label) {
+        int index = indexOf(label);
+        return index == -1 ? this : removeRange(index, index + 1);
+    }
+
+    // EFFECTS: returns this tree without the values at indices [from, to)
+    //          throws IndexOutOfBoundsException if the range is not within [0, size())
+    public EntryTree<T> removeRange(int from, int to) {
+        checkRange(from, to);
+        Node<T>[] tail = split(root, to);
+        Node<T>[] head = split(tail[0], from);
+        return new EntryTree<>(merge(head[0], tail[1]));
+    }
+
+    // EFFECTS: returns the values at indices [from, to), in order
+    //          throws IndexOutOfBoundsException if the range is not within [0, size())
+    public List<T> subList(int from, int to) {
+        checkRange(from, to);
+        List<T> values = new ArrayList<>(to - from);
+        collect(root, from, to, values);
+        return values;
+    }
+
+    // MODIFIES: values
+    // EFFECTS: adds the values of node's subtree at indices [from, to) of that subtree to values, in order
+    private static <T> void collect(Node<T> node, int from, int to, List<T> values) {
+        if (node == null || from >= to) {
+            return;
+        }
+        int leftSize = sizeOf(node.left);
+        if (from < leftSize) {
+            collect(node.left, from, Math.min(to, leftSize), values);
+        }
+        if (from <= leftSize && leftSize < to) {
+            values.add(node.value);
+        }
+        if (to > leftSize + 1) {
+            collect(node.right, Math.max(0, from - leftSize - 1), to - leftSize - 1, values);
+        }
+    }
+
+    // EFFECTS: returns the node at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, size())
+    private Node<T> nodeAt(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (i < leftSize) {
+                node = node.left;
+            } else if (i == leftSize) {
+                return node;
+            } else {
+                i -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // EFFECTS: throws IndexOutOfBoundsException if [from, to) is not a range within [0, size())
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + size());
+        }
+    }
+
+    // EFFECTS: returns the first k nodes of node's subtree and the rest as two new subtrees
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Node<T>[] split(Node<T> node, int k) {
+        if (node == null) {
+            return (Node<T>[]) new Node[2];
+        }
+        int leftSize = sizeOf(node.left);
+        if (k <= leftSize) {
+            Node<T>[] parts = split(node.left, k);
+            parts[1] = node.with(parts[1], node.right);
+            return parts;
+        }
+        Node<T>[] parts = split(node.right, k - leftSize - 1);
+        parts[0] = node.with(node.left, parts[0]);
+        return parts;
+    }
+
+    // EFFECTS: returns a subtree of the nodes of a followed by the nodes of b
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a.priority >= b.priority) {
+            return a.with(a.left, merge(a.right, b));
+        }
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    // EFFECTS: returns the number of nodes in node's subtree
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // EFFECTS: returns a pseudo-random priority for label (a hash, so equal trees have equal shapes)
+    private static int priorityOf(long label) {
+        long z = (label + 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+
+    @Override
+    // EFFECTS: returns an iterator over the values, in order
+    public Iterator<T> iterator() {
+        return new InOrderIterator<>(root);
+    }
+
+    // Represents an iterator over the values of a subtree, in order
+    private static final class InOrderIterator<T> implements Iterator<T> {
+        private final ArrayDeque<Node<T>> path = new ArrayDeque<>(); // nodes whose value is still to come
+
+        // EFFECTS: initializes an iterator over the values of root's subtree
+        private InOrderIterator(Node<T> root) {
+            pushLeft(root);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: pushes node and its chain of left children
+        private void pushLeft(Node<T> node) {
+            for (Node<T> n = node; n != null; n = n.left) {
+                path.push(n);
+            }
+        }
+
+        @Override
+        // EFFECTS: returns whether there are values left
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        // MODIFIES: this
+        // EFFECTS: returns the next value
+        //          throws NoSuchElementException if there are none left
+        public T next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = path.pop();
+            pushLeft(node.right);
+            return node.value;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package model;
+
+import java.util.NoSuchElementException;
+
+// Represents a double-ended queue of ints in a circular array: adding and removing at either end is O(1)
+// (amortized while an unbounded ring grows). A bounded ring drops the element at the other end when one is
+// added while it is full.
+public class IntRingBuffer {
+    public static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int bound; // maximum size, 0 if unbounded
+    private int[] elements;
+    private int head = 0; // index of the first element in elements
+    private int size = 0;
+
+    // EFFECTS: initializes an empty, unbounded ring
+    public IntRingBuffer() {
+        this(0);
+    }
+
+    // EFFECTS: initializes an empty ring holding at most bound elements (unbounded if bound is 0)
+    //          throws IllegalArgumentException if bound is negative
+    public IntRingBuffer(int bound) {
+        if (bound < 0) {
+            throw new IllegalArgumentException("Bound must not be negative: " + bound);
+        }
+        this.bound = bound;
+        elements = new int[bound > 0 ? Math.min(bound, INITIAL_CAPACITY) : INITIAL_CAPACITY];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: inserts value before the first element, dropping the last element if the ring is full
+    public void addFirst(int value) {
+        if (bound > 0 && size == bound) {
+            pollLast();
+        }
+        ensureCapacity();
+        head = (head + elements.length - 1) % elements.length;
+        elements[head] = value;
+        size++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends value after the last element, dropping the first element if the ring is full
+    public void addLast(int value) {
+        if (bound > 0 && size == bound) {
+            pollFirst();
+        }
+        ensureCapacity();
+        elements[(head + size) % elements.length] = value;
+        size++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes and returns the first element, or returns EMPTY if there is none
+    public int pollFirst() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        int value = elements[head];
+        head = (head + 1) % elements.length;
+        size--;
+        return value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes and returns the last element, or returns EMPTY if there is none
+    public int pollLast() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        size--;
+        return elements[(head + size) % elements.length];
+    }
+
+    // EFFECTS: returns the first element, or EMPTY if there is none
+    public int peekFirst() {
+        return size == 0 ? EMPTY : elements[head];
+    }
+
+    // EFFECTS: returns the i-th element from the front
+    //          throws NoSuchElementException if i is not in [0, size())
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new NoSuchElementException("Index: " + i + ", Size: " + size);
+        }
+        return elements[(head + i) % elements.length];
+    }
+
+    // EFFECTS: returns the number of elements
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns whether there are no elements
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes all elements
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: doubles the array (keeping the elements in order) if it is full
+    private void ensureCapacity() {
+        if (size < elements.length) {
+            return;
+        }
+        int capacity = elements.length * 2;
+        int[] grown = new int[bound > 0 ? Math.min(bound, capacity) : capacity];
+        for (int i = 0; i < size; i++) {
+            grown[i] = elements[(head + i) % elements.length];
+        }
+        elements = grown;
+        head = 0;
+    }
+}
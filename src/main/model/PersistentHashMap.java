@@ -0,0 +1,277 @@
+package model;
+
+import java.util.List;
+
+// Represents an immutable hash map: a trie on the bits of the keys' hashes, five bits per level, whose nodes
+// only hold the slots in use. Looking up, putting and removing a key take O(log n) time (at most seven levels),
+// and put and remove return a new map that shares all but O(log n) nodes with the old one, which stays valid.
+public final class PersistentHashMap<K, V> {
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    private static final int BITS = 5; // hash bits per level
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    // Represents one node of the trie: a bitmap of the slots in use and, for each, a child node or a chain of
+    // entries whose hashes are the same up to this level
+    private static final class Node {
+        private final int bitmap;
+        private final Object[] slots; // Node or Entry, in slot order
+
+        // EFFECTS: initializes a node with given slots in use
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        // EFFECTS: returns the index in slots of the slot with given bit
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        // EFFECTS: returns a copy of this node with the slot of given bit set to o (added if not in use)
+        private Node with(int bit, Object o) {
+            int index = indexOf(bit);
+            if ((bitmap & bit) != 0) {
+                Object[] copy = slots.clone();
+                copy[index] = o;
+                return new Node(bitmap, copy);
+            }
+            Object[] copy = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            copy[index] = o;
+            System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+            return new Node(bitmap | bit, copy);
+        }
+
+        // EFFECTS: returns a copy of this node without the slot of given bit (which is in use), null if no slots
+        //          would be left
+        private Node without(int bit) {
+            if (slots.length == 1) {
+                return null;
+            }
+            int index = indexOf(bit);
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, copy.length - index);
+            return new Node(bitmap & ~bit, copy);
+        }
+    }
+
+    // Represents a key and its value, linked to the other entries with the same hash
+    private static final class Entry {
+        private final int hash;
+        private final Object key;
+        private final Object value;
+        private final Entry next;
+
+        // EFFECTS: initializes an entry of key and value, followed by next
+        private Entry(int hash, Object key, Object value, Entry next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        // EFFECTS: returns the entry of key in this chain, null if there is none
+        private Entry find(Object k) {
+            for (Entry e = this; e != null; e = e.next) {
+                if (e.key.equals(k)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        // EFFECTS: returns a copy of this chain with key k mapped to v
+        private Entry with(Object k, Object v) {
+            if (key.equals(k)) {
+                return new Entry(hash, k, v, next);
+            }
+            return new Entry(hash, key, value, next == null ? new Entry(hash, k, v, null) : next.with(k, v));
+        }
+
+        // EFFECTS: returns a copy of this chain without key k (which is in it), null if it would be empty
+        private Entry without(Object k) {
+            if (key.equals(k)) {
+                return next;
+            }
+            return new Entry(hash, key, value, next.without(k));
+        }
+    }
+
+    // EFFECTS: initializes a map with given root and number of keys
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    // EFFECTS: returns the empty map
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    // EFFECTS: returns a map of each of keys to the value at the same index of values; takes O(n) time, where
+    //          putting them one by one would copy O(n log n) slots
+    //          throws IllegalArgumentException if keys has duplicates or its size differs from that of values
+    //          throws NullPointerException if a key is null
+    public static <K, V> PersistentHashMap<K, V> of(List<? extends K> keys, List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("Sizes: " + keys.size() + ", " + values.size());
+        }
+        Entry[] entries = new Entry[keys.size()];
+        for (int i = 0; i < entries.length; i++) {
+            K key = keys.get(i);
+            entries[i] = new Entry(spread(key.hashCode()), key, values.get(i), null);
+        }
+        Node root = entries.length == 0 ? null : build(entries, new Entry[entries.length], 0, entries.length, 0);
+        return new PersistentHashMap<>(root, entries.length);
+    }
+
+    // MODIFIES: entries, spare
+    // EFFECTS: returns the subtrie (at given shift) of entries[from, to), which all have the same slots down to
+    //          this level; reorders them by slot, using spare[from, to) as room
+    private static Node build(Entry[] entries, Entry[] spare, int from, int to, int shift) {
+        int[] starts = new int[MASK + 2]; // index of the first entry of each slot, after reordering
+        for (int i = from; i < to; i++) {
+            starts[((entries[i].hash >>> shift) & MASK) + 1]++;
+        }
+        int bitmap = 0;
+        for (int slot = 0; slot <= MASK; slot++) {
+            bitmap |= starts[slot + 1] == 0 ? 0 : 1 << slot;
+            starts[slot + 1] += starts[slot];
+        }
+        for (int i = from; i < to; i++) {
+            spare[from + starts[(entries[i].hash >>> shift) & MASK]++] = entries[i];
+        }
+        System.arraycopy(spare, from, entries, from, to - from); // starts now holds the end of each slot
+        Object[] slots = new Object[Integer.bitCount(bitmap)];
+        int start = from;
+        for (int slot = 0, index = 0; slot <= MASK; slot++) {
+            int end = from + starts[slot];
+            if (end > start) {
+                slots[index++] = slotOf(entries, spare, start, end, shift);
+            }
+            start = end;
+        }
+        return new Node(bitmap, slots);
+    }
+
+    // MODIFIES: entries, spare
+    // EFFECTS: returns the contents of the slot holding entries[from, to) (at given shift): a chain if they all
+    //          have the same hash, a subtrie otherwise
+    //          throws IllegalArgumentException if two of them have equal keys
+    private static Object slotOf(Entry[] entries, Entry[] spare, int from, int to, int shift) {
+        for (int i = from + 1; i < to; i++) {
+            if (entries[i].hash != entries[from].hash) {
+                return build(entries, spare, from, to, shift + BITS);
+            }
+        }
+        Entry chain = null;
+        for (int i = from; i < to; i++) {
+            if (chain != null && chain.find(entries[i].key) != null) {
+                throw new IllegalArgumentException("Duplicate key: " + entries[i].key);
+            }
+            chain = new Entry(entries[i].hash, entries[i].key, entries[i].value, chain);
+        }
+        return chain;
+    }
+
+    // EFFECTS: returns the number of keys
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns whether there are no keys
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // EFFECTS: returns the value of key, null if it has none (or key is null)
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Entry entry = key == null ? null : find(key);
+        return entry == null ? null : (V) entry.value;
+    }
+
+    // EFFECTS: returns whether key has a value
+    public boolean containsKey(Object key) {
+        return key != null && find(key) != null;
+    }
+
+    // EFFECTS: returns this map with key mapped to value
+    //          throws NullPointerException if key is null
+    public PersistentHashMap<K, V> put(K key, V value) {
+        int hash = spread(key.hashCode());
+        return new PersistentHashMap<>(put(root, 0, hash, key, value), containsKey(key) ? size : size + 1);
+    }
+
+    // EFFECTS: returns this map without key (this map if key has no value)
+    public PersistentHashMap<K, V> remove(Object key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        return new PersistentHashMap<>(remove(root, 0, spread(key.hashCode()), key), size - 1);
+    }
+
+    // EFFECTS: returns the entry of key, null if there is none
+    private Entry find(Object key) {
+        int hash = spread(key.hashCode());
+        Object o = root;
+        for (int shift = 0; o instanceof Node; shift += BITS) {
+            Node node = (Node) o;
+            int bit = bitOf(hash, shift);
+            o = (node.bitmap & bit) == 0 ? null : node.slots[node.indexOf(bit)];
+        }
+        return o == null ? null : ((Entry) o).find(key);
+    }
+
+    // EFFECTS: returns a copy of the subtrie at node (at given shift) with key mapped to value
+    private static Node put(Node node, int shift, int hash, Object key, Object value) {
+        int bit = bitOf(hash, shift);
+        if (node == null) {
+            return new Node(bit, new Object[]{new Entry(hash, key, value, null)});
+        }
+        Object o = (node.bitmap & bit) == 0 ? null : node.slots[node.indexOf(bit)];
+        if (o == null) {
+            return node.with(bit, new Entry(hash, key, value, null));
+        } else if (o instanceof Node) {
+            return node.with(bit, put((Node) o, shift + BITS, hash, key, value));
+        }
+        Entry chain = (Entry) o;
+        if (chain.hash == hash) {
+            return node.with(bit, chain.with(key, value));
+        }
+        Node split = new Node(bitOf(chain.hash, shift + BITS), new Object[]{chain});
+        return node.with(bit, put(split, shift + BITS, hash, key, value));
+    }
+
+    // EFFECTS: returns a copy of the subtrie at node (at given shift, holding key) without key, null if it would
+    //          be empty; a child left with a single chain is replaced by that chain
+    private static Node remove(Node node, int shift, int hash, Object key) {
+        int bit = bitOf(hash, shift);
+        Object o = node.slots[node.indexOf(bit)];
+        Object replacement;
+        if (o instanceof Node) {
+            Node child = remove((Node) o, shift + BITS, hash, key);
+            boolean single = child != null && child.slots.length == 1 && child.slots[0] instanceof Entry;
+            replacement = single ? child.slots[0] : child;
+        } else {
+            replacement = ((Entry) o).without(key);
+        }
+        return replacement == null ? node.without(bit) : node.with(bit, replacement);
+    }
+
+    // EFFECTS: returns the bit of the slot for hash at given shift
+    private static int bitOf(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    // EFFECTS: returns hash with its bits mixed, so that similar hashes spread over the slots
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
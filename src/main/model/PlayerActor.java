@@ -0,0 +1,175 @@
+package model;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.LockSupport;
+
+// Represents the player thread: the one thread that changes playback state once playlists are shared between
+// the command line, the GUI and the audio threads. Commands are queued from any thread on a lock-free queue
+// and run in order, so callers never wait for audio I/O. Of a run of consecutive seek or volume commands for
+// the same target, only the last one is run.
+public class PlayerActor {
+    public static final int CMD_OTHER = 0;
+    public static final int CMD_SEEK = 1;
+    public static final int CMD_VOLUME = 2;
+    private static PlayerActor instance;
+
+    private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile long commandsRun = 0;
+    private volatile long commandsCoalesced = 0;
+    private volatile long totalLatencyNanos = 0; // submit-to-completion time of all commands run
+    private volatile long maxLatencyNanos = 0;
+
+    // Represents one queued command
+    private static class Command {
+        private final Object target;
+        private final int kind;
+        private final Runnable action;
+        private final long submitted = System.nanoTime();
+
+        // EFFECTS: initializes a command of given kind on target
+        private Command(Object target, int kind, Runnable action) {
+            this.target = target;
+            this.kind = kind;
+            this.action = action;
+        }
+
+        // EFFECTS: returns whether running other makes running this command unnecessary
+        private boolean supersededBy(Command other) {
+            return other != null && kind != CMD_OTHER && other.kind == kind && other.target == target;
+        }
+    }
+
+    // EFFECTS: initializes the actor and starts its (daemon) thread
+    public PlayerActor() {
+        thread = new Thread(this::run, "PlayerActor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // EFFECTS: returns the process-wide player thread, starting it if needed
+    public static synchronized PlayerActor getInstance() {
+        if (instance == null) {
+            instance = new PlayerActor();
+        }
+        return instance;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues a command that is not coalesced; returns immediately
+    public void submit(Object target, Runnable action) {
+        submit(target, CMD_OTHER, action);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues a command of given kind (CMD_*) on target; returns immediately
+    public void submit(Object target, int kind, Runnable action) {
+        queue.add(new Command(target, kind, action));
+        LockSupport.unpark(thread);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: runs task on the player thread after the commands queued before it, and returns its result;
+    //          when called on the player thread, runs it right away
+    //          throws IllegalStateException if the task throws a checked exception or the caller is interrupted
+    public <T> T call(Callable<T> task) {
+        if (isPlayerThread()) {
+            return callNow(task);
+        }
+        FutureTask<T> future = new FutureTask<>(task);
+        submit(null, future);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // EFFECTS: runs task and returns its result
+    //          throws IllegalStateException if the task throws a checked exception
+    private static <T> T callNow(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // EFFECTS: waits until every command queued before this call has been run
+    public void sync() {
+        call(() -> null);
+    }
+
+    // EFFECTS: returns whether the caller is the player thread
+    public boolean isPlayerThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: body of the player thread - runs the queued commands in order, skipping superseded ones, and
+    //          sleeps while there are none
+    private void run() {
+        while (true) {
+            Command command = queue.poll();
+            if (command == null) {
+                LockSupport.park(this);
+            } else if (command.supersededBy(queue.peek())) {
+                commandsCoalesced++;
+            } else {
+                execute(command);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: runs the command (reporting anything it throws) and records its latency; it is counted as run
+    //          before it starts, so a caller woken by the command (e.g. in sync) already sees it counted
+    private void execute(Command command) {
+        commandsRun++;
+        try {
+            command.action.run();
+        } catch (RuntimeException e) {
+            System.err.println("WARNING: player command failed: " + e);
+        }
+        long latency = System.nanoTime() - command.submitted;
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+    }
+
+    // EFFECTS: returns the number of commands run (or running) so far
+    public long getCommandsRun() {
+        return commandsRun;
+    }
+
+    // EFFECTS: returns the number of commands skipped because a later one of the same kind superseded them
+    public long getCommandsCoalesced() {
+        return commandsCoalesced;
+    }
+
+    // EFFECTS: returns the average time from submitting a command to its completion in microseconds (0 if none)
+    public long getAverageLatencyMicros() {
+        long run = commandsRun;
+        return run == 0 ? 0 : totalLatencyNanos / run / 1000;
+    }
+
+    // EFFECTS: returns the longest time from submitting a command to its completion in microseconds
+    public long getMaxLatencyMicros() {
+        return maxLatencyNanos / 1000;
+    }
+
+    // EFFECTS: returns the number of commands waiting to be run
+    public int getQueueLength() {
+        return queue.size();
+    }
+}
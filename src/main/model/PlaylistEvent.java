@@ -0,0 +1,61 @@
+package model;
+
+// Represents the changes made to a playlist since its listeners were last told: the kinds of change (CHANGED_*
+// bits) and the snapshots from before and after them. Changes made in a row are coalesced into one event.
+public class PlaylistEvent {
+    public static final int CHANGED_ADDED = 1; // songs were added
+    public static final int CHANGED_REMOVED = 1 << 1; // songs were removed
+    public static final int CHANGED_MOVED = 1 << 2; // songs were reordered
+    public static final int CHANGED_STARTED = 1 << 3; // a song started playing (or became the current song)
+    public static final int CHANGED_FINISHED = 1 << 4; // the current song played to its end or was stopped
+    public static final int CHANGED_PAUSED = 1 << 5; // the current song was paused
+    public static final int CHANGED_POSITION = 1 << 6; // the current song jumped to another position
+    public static final int CHANGED_VOLUME = 1 << 7;
+    public static final int CHANGED_MUTE = 1 << 8;
+    public static final int CHANGED_LOOP = 1 << 9; // single-song or playlist looping was turned on or off
+    public static final int CHANGED_SHUFFLE = 1 << 10;
+    public static final int CHANGED_SWITCHED = 1 << 11; // another playlist became the active one
+    public static final int CHANGED_PLAYLISTS = 1 << 12; // a playlist was created, opened or removed
+    public static final int CHANGED_ENTRIES = CHANGED_ADDED | CHANGED_REMOVED | CHANGED_MOVED;
+    public static final int CHANGED_PLAYBACK = CHANGED_STARTED | CHANGED_FINISHED | CHANGED_PAUSED
+            | CHANGED_POSITION;
+
+    private final Songs source;
+    private final int changes;
+    private final PlaylistSnapshot before;
+    private final PlaylistSnapshot after;
+
+    // EFFECTS: initializes an event for the given CHANGED_* bits of source, which went from before to after
+    public PlaylistEvent(Songs source, int changes, PlaylistSnapshot before, PlaylistSnapshot after) {
+        this.source = source;
+        this.changes = changes;
+        this.before = before;
+        this.after = after;
+    }
+
+    // EFFECTS: returns the playlist that changed
+    public Songs getSource() {
+        return source;
+    }
+
+    // EFFECTS: returns the CHANGED_* bits of the changes
+    public int getChanges() {
+        return changes;
+    }
+
+    // EFFECTS: returns whether any of the given CHANGED_* bits is set
+    public boolean hasAny(int kinds) {
+        return (changes & kinds) != 0;
+    }
+
+    // EFFECTS: returns the snapshot of the playlist the last time its listeners were told of a change
+    //          (for CHANGED_SWITCHED, of the playlist that was active before)
+    public PlaylistSnapshot getBefore() {
+        return before;
+    }
+
+    // EFFECTS: returns the snapshot of the playlist after the changes
+    public PlaylistSnapshot getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,7 @@
+package model;
+
+// Represents a callback run on the PlayerActor thread when a playlist has changed
+public interface PlaylistListener {
+    // EFFECTS: called once after a run of changes (possibly of several kinds) has been made to the playlist
+    void playlistChanged(PlaylistEvent event);
+}
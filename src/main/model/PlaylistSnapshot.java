@@ -0,0 +1,128 @@
+package model;
+
+import java.util.Iterator;
+import java.util.List;
+
+// Represents an immutable view of a Songs instance at one point in time: its songs, the current song and its
+// playback state, volume and looping settings, the play queue, and totals over its songs. Snapshots can be read
+// from any thread without locking.
+public class PlaylistSnapshot implements Iterable<SoundFile> {
+    private final EntryTree<SoundFile> entries;
+    private final PersistentHashMap<EntryPath, Long> labels; // path of each song -> its label in entries
+    private final int lastIndexPlayed;
+    private final int state;
+    private final float volume;
+    private final boolean muted;
+    private final boolean singleSongLooping;
+    private final boolean playlistLooping;
+    private final boolean shuffling;
+    private final PlaylistStats stats;
+    private final List<String> queue; // paths of the queued songs, in the order they will be played (unmodifiable)
+
+    // EFFECTS: initializes a snapshot of the songs of entries (labelled as in labels, with totals stats), the
+    //          play queue and the given playback settings
+    PlaylistSnapshot(EntryTree<SoundFile> entries, PersistentHashMap<EntryPath, Long> labels, PlaylistStats stats,
+                     List<String> queue, int lastIndexPlayed, int state, float volume, boolean muted,
+                     boolean singleSongLooping, boolean playlistLooping, boolean shuffling) {
+        this.entries = entries;
+        this.labels = labels;
+        this.lastIndexPlayed = lastIndexPlayed;
+        this.state = state;
+        this.volume = volume;
+        this.muted = muted;
+        this.singleSongLooping = singleSongLooping;
+        this.playlistLooping = playlistLooping;
+        this.shuffling = shuffling;
+        this.stats = stats;
+        this.queue = queue;
+    }
+
+    // EFFECTS: returns whether a song of given path is in the snapshot
+    public boolean contains(String path) {
+        return labels.containsKey(EntryPath.find(path));
+    }
+
+    // EFFECTS: gets the soundfile of given index
+    //          throws IndexOutOfBoundsException if index is not in [0, getLength())
+    public SoundFile get(int i) {
+        return entries.get(i);
+    }
+
+    // EFFECTS: gets the string name of sound file index
+    //          throws IndexOutOfBoundsException if index is not in [0, getLength())
+    public String getString(int i) {
+        return get(i).getString();
+    }
+
+    // EFFECTS: gets the number of songs
+    public int getLength() {
+        return entries.size();
+    }
+
+    // EFFECTS: returns whether there are no songs
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    // EFFECTS: gets the index of the last song played, -1 if none
+    public int getLastIndexPlayed() {
+        return lastIndexPlayed;
+    }
+
+    // EFFECTS: gets the playback state of the last song played (one of Songs.STATE_*)
+    public int getState() {
+        return state;
+    }
+
+    // EFFECTS: gets index of song playing, -1 if none
+    public int indexPlaying() {
+        return state == Songs.STATE_PLAYING ? lastIndexPlayed : -1;
+    }
+
+    // EFFECTS: returns whether the last song played is paused
+    public boolean isPaused() {
+        return state == Songs.STATE_PAUSED;
+    }
+
+    // EFFECTS: gets the volume of the songs
+    public float getVolume() {
+        return volume;
+    }
+
+    // EFFECTS: returns whether the songs are muted
+    public boolean isMuted() {
+        return muted;
+    }
+
+    // EFFECTS: returns whether one song is looping
+    public boolean isSingleSongLooping() {
+        return singleSongLooping;
+    }
+
+    // EFFECTS: returns whether the playlist is looping
+    public boolean isPlaylistLooping() {
+        return playlistLooping;
+    }
+
+    // EFFECTS: returns whether the playlist is shuffled
+    public boolean isShuffling() {
+        return shuffling;
+    }
+
+    // EFFECTS: returns the totals over the songs (number, length, size, file types and sample rates)
+    public PlaylistStats getStats() {
+        return stats;
+    }
+
+    // EFFECTS: returns the paths of the queued songs still in the playlist, in the order they will be played
+    //          (an unmodifiable list)
+    public List<String> getQueue() {
+        return queue;
+    }
+
+    @Override
+    // EFFECTS: returns an iterator over the songs, in order
+    public Iterator<SoundFile> iterator() {
+        return entries.iterator();
+    }
+}
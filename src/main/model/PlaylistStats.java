@@ -0,0 +1,133 @@
+package model;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Represents running totals over the songs of a playlist: how many there are, their total length and size, and
+// how many there are of each file type and sample rate. Songs keeps them up to date as songs are added and
+// removed, and publishes an unmodifiable copy with each snapshot, so every total is read in O(1) time.
+public class PlaylistStats {
+    private int trackCount = 0;
+    private long totalMicros = 0;
+    private long totalBytes = 0;
+    private final Map<String, Integer> typeCounts; // file extension of the type -> number of songs
+    private final Map<Float, Integer> sampleRateCounts; // sample rate in Hz -> number of songs
+
+    // EFFECTS: initializes totals of no songs
+    PlaylistStats() {
+        typeCounts = new TreeMap<>();
+        sampleRateCounts = new TreeMap<>();
+    }
+
+    // EFFECTS: initializes an unmodifiable copy of other
+    private PlaylistStats(PlaylistStats other) {
+        trackCount = other.trackCount;
+        totalMicros = other.totalMicros;
+        totalBytes = other.totalBytes;
+        typeCounts = Collections.unmodifiableMap(new TreeMap<>(other.typeCounts));
+        sampleRateCounts = Collections.unmodifiableMap(new TreeMap<>(other.sampleRateCounts));
+    }
+
+    // EFFECTS: returns an unmodifiable copy of these totals
+    PlaylistStats copy() {
+        return new PlaylistStats(this);
+    }
+
+    // EFFECTS: returns a modifiable copy of these totals
+    PlaylistStats modifiableCopy() {
+        PlaylistStats copy = new PlaylistStats();
+        copy.trackCount = trackCount;
+        copy.totalMicros = totalMicros;
+        copy.totalBytes = totalBytes;
+        copy.typeCounts.putAll(typeCounts);
+        copy.sampleRateCounts.putAll(sampleRateCounts);
+        return copy;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts sf in the totals
+    void add(SoundFile sf) {
+        count(sf, 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: no longer counts sf (which was counted with add) in the totals
+    void remove(SoundFile sf) {
+        count(sf, -1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds sign (1 or -1) times sf to the totals
+    private void count(SoundFile sf, int sign) {
+        trackCount += sign;
+        totalMicros += sign * sf.length();
+        totalBytes += sign * sf.getByteLength();
+        typeCounts.merge(sf.getType().getExtension(), sign, PlaylistStats::sumOrNull);
+        sampleRateCounts.merge(sf.getFormat().getSampleRate(), sign, PlaylistStats::sumOrNull);
+    }
+
+    // EFFECTS: returns a + b, or null (removing the count) if that is 0
+    private static Integer sumOrNull(Integer a, Integer b) {
+        int sum = a + b;
+        return sum == 0 ? null : sum;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: resets the totals to those of no songs
+    void clear() {
+        trackCount = 0;
+        totalMicros = 0;
+        totalBytes = 0;
+        typeCounts.clear();
+        sampleRateCounts.clear();
+    }
+
+    // EFFECTS: returns the number of songs
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    // EFFECTS: returns the total length of the songs in microseconds
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    // EFFECTS: returns the total size of the songs' files in bytes
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    // EFFECTS: returns the number of songs of each file type (by extension, e.g. "wav"), in order of extension
+    public Map<String, Integer> getTypeCounts() {
+        return typeCounts;
+    }
+
+    // EFFECTS: returns the number of songs of the file type with given extension
+    public int getTypeCount(String extension) {
+        return typeCounts.getOrDefault(extension, 0);
+    }
+
+    // EFFECTS: returns the number of songs of each sample rate (in Hz), in increasing order of sample rate
+    public Map<Float, Integer> getSampleRateCounts() {
+        return sampleRateCounts;
+    }
+
+    // EFFECTS: returns the number of songs of given sample rate in Hz
+    public int getSampleRateCount(float sampleRate) {
+        return sampleRateCounts.getOrDefault(sampleRate, 0);
+    }
+
+    // EFFECTS: returns the number of songs and their total length, e.g. "1,234 tracks, 87:12:03"
+    public String summary() {
+        return String.format(Locale.ROOT, "%,d %s, %s", trackCount, trackCount == 1 ? "track" : "tracks",
+                convertMicrosecondsToDuration(totalMicros));
+    }
+
+    // EFFECTS: returns micros as hours:minutes:seconds, e.g. "87:12:03"
+    public static String convertMicrosecondsToDuration(long micros) {
+        long seconds = micros / 1000000;
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
@@ -0,0 +1,302 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+// Represents a search index over the paths of playlist entries. Each path is split into words (runs of letters
+// and digits, in lower case). The index keeps the sorted vocabulary of distinct words, the entries with each
+// word, and the words with each trigram (three characters in a row). A query word is looked up among the words
+// first - by a range of the sorted vocabulary for a prefix, by its trigrams for a substring - and only the
+// entries of the matching words are read, so a query never scans every path.
+// Paths are added as songs are added to playlists and are never dropped (re-adding one costs nothing), so
+// callers filter out entries that are no longer in any playlist. One thread (the player thread) adds paths;
+// searches, from any thread, see the paths added up to the last publish. All the lists are append-only and each
+// list of ids remembers how much of it is published, so a publish only touches the lists changed since the last
+// one and costs O(new paths), however large the index is.
+public class SearchIndex {
+    public static final int MIN_SUBSTRING = 3; // shorter query words only match the start of words
+
+    private volatile EntryPath[] entries = new EntryPath[16]; // entry id -> path, in the order first added
+    private int entryCount = 0;
+    private volatile int publishedEntries = 0;
+    private final HashMap<EntryPath, Integer> entryIds = new HashMap<>(); // only used by the adding thread
+    private final ConcurrentSkipListMap<String, Integer> wordIds = new ConcurrentSkipListMap<>(); // word -> id
+    private volatile String[] words = new String[16]; // word id -> word
+    private volatile Postings[] postings = new Postings[16]; // word id -> ids of the entries with it
+    private int wordCount = 0;
+    private volatile int publishedWords = 0;
+    private final ConcurrentHashMap<Long, Postings> trigrams = new ConcurrentHashMap<>(); // -> ids of the words
+    private final ArrayList<Postings> changed = new ArrayList<>(); // lists added to since the last publish
+
+    // Represents a growable list of ids, in increasing order, of which the first published are visible to searches
+    private static final class Postings {
+        private volatile int[] ids = new int[2]; // replaced by a larger copy when full
+        private int size = 0;
+        private volatile int published = 0;
+        private boolean changed = false; // whether it is in the index's changed lists
+
+        // MODIFIES: this
+        // EFFECTS: appends id, unless it is already the last one; returns false if it was
+        private boolean add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return false;
+            }
+            if (size == ids.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(ids, 0, grown, 0, size);
+                ids = grown;
+            }
+            ids[size++] = id;
+            return true;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: makes every id added so far visible to searches
+        private void publish() {
+            published = size;
+            changed = false;
+        }
+    }
+
+    // Represents a position in one of several posting lists merged in increasing order of id
+    private static final class Cursor implements Comparable<Cursor> {
+        private final int[] ids;
+        private final int size;
+        private int position = 0;
+
+        // EFFECTS: initializes a cursor at the start of the published ids of list (which has some)
+        private Cursor(Postings list) {
+            size = list.published;
+            ids = list.ids; // read after published, so it holds at least size ids
+        }
+
+        // EFFECTS: returns the id at this cursor
+        private int current() {
+            return ids[position];
+        }
+
+        @Override
+        // EFFECTS: orders cursors by the id at them
+        public int compareTo(Cursor other) {
+            return Integer.compare(current(), other.current());
+        }
+    }
+
+    // EFFECTS: returns the number of paths published so far
+    public int size() {
+        return publishedEntries;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds path to the index (visible to searches from the next publish); returns false if it was
+    //          already in it
+    public boolean add(EntryPath path) {
+        if (entryIds.containsKey(path)) {
+            return false;
+        }
+        int id = entryCount;
+        if (id == entries.length) {
+            entries = Arrays.copyOf(entries, id * 2);
+        }
+        entries[id] = path;
+        entryCount++;
+        entryIds.put(path, id);
+        for (String word : wordsOf(path.toString())) {
+            int wordId = wordId(word); // may grow the posting array, so before reading it
+            addTo(postings[wordId], id);
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes the paths added since the last publish visible to searches; touches only the lists of ids
+    //          changed since then. Returns the number of lists published.
+    public int publish() {
+        for (Postings list : changed) {
+            list.publish();
+        }
+        int published = changed.size();
+        changed.clear();
+        publishedWords = wordCount;
+        publishedEntries = entryCount;
+        return published;
+    }
+
+    // MODIFIES: this, list
+    // EFFECTS: appends id to list, remembering that list is to be published
+    private void addTo(Postings list, int id) {
+        if (list.add(id) && !list.changed) {
+            list.changed = true;
+            changed.add(list);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the id of word, adding it (and its trigrams) to the vocabulary if it is new
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) {
+            return id;
+        }
+        int newId = wordCount;
+        if (newId == words.length) {
+            words = Arrays.copyOf(words, newId * 2);
+            postings = Arrays.copyOf(postings, newId * 2);
+        }
+        words[newId] = word;
+        postings[newId] = new Postings();
+        wordCount++;
+        wordIds.put(word, newId);
+        for (int i = 0; i + MIN_SUBSTRING <= word.length(); i++) {
+            addTo(trigrams.computeIfAbsent(trigramAt(word, i), k -> new Postings()), newId);
+        }
+        return newId;
+    }
+
+    // EFFECTS: returns the paths, in the order they were first added, that contain every word of query - as the
+    //          start of one of their words if prefix (or if the query word is shorter than MIN_SUBSTRING), and
+    //          anywhere otherwise - and for which live is true; at most limit of them
+    public List<String> search(String query, boolean prefix, int limit, Predicate<String> live) {
+        List<String> queryWords = wordsOf(query);
+        List<String> result = new ArrayList<>();
+        int visibleWords = publishedWords; // read first, so the word arrays hold at least that many words
+        Postings driver = null; // word ids matching the query word with the fewest entries
+        long fewest = Long.MAX_VALUE;
+        for (String word : queryWords) {
+            Postings matched = matchingWords(word, prefix, visibleWords);
+            long count = entryCount(matched);
+            if (count < fewest) {
+                driver = matched;
+                fewest = count;
+            }
+        }
+        if (driver == null || fewest == 0) {
+            return result;
+        }
+        PriorityQueue<Cursor> merge = cursors(driver);
+        while (!merge.isEmpty() && result.size() < limit) {
+            String path = entries[next(merge)].toString();
+            if (matchesAll(path.toLowerCase(Locale.ROOT), queryWords, prefix) && live.test(path)) {
+                result.add(path);
+            }
+        }
+        return result;
+    }
+
+    // EFFECTS: returns the ids of the published words (those below visibleWords) matching a query word (see
+    //          search), in a list local to the search (so all its size ids are readable)
+    private Postings matchingWords(String word, boolean prefix, int visibleWords) {
+        Postings matched = new Postings();
+        if (prefix || word.length() < MIN_SUBSTRING) {
+            for (int id : wordIds.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                if (id < visibleWords) {
+                    matched.add(id);
+                }
+            }
+            return matched;
+        }
+        Postings rarest = null; // the words with the query word's rarest trigram, which contain all the others
+        for (int i = 0; i + MIN_SUBSTRING <= word.length(); i++) {
+            Postings candidates = trigrams.getOrDefault(trigramAt(word, i), new Postings());
+            rarest = rarest == null || candidates.published < rarest.published ? candidates : rarest;
+        }
+        int count = rarest.published;
+        int[] ids = rarest.ids;
+        String[] vocabulary = words;
+        for (int i = 0; i < count; i++) {
+            if (ids[i] < visibleWords && vocabulary[ids[i]].contains(word)) {
+                matched.add(ids[i]);
+            }
+        }
+        return matched;
+    }
+
+    // EFFECTS: returns the total number of published entries of the given words
+    private long entryCount(Postings wordList) {
+        Postings[] lists = postings;
+        long count = 0;
+        for (int i = 0; i < wordList.size; i++) {
+            count += lists[wordList.ids[i]].published;
+        }
+        return count;
+    }
+
+    // EFFECTS: returns cursors at the start of the published entries of each of the given words
+    private PriorityQueue<Cursor> cursors(Postings wordList) {
+        Postings[] lists = postings;
+        List<Cursor> cursors = new ArrayList<>(wordList.size);
+        for (int i = 0; i < wordList.size; i++) {
+            Postings list = lists[wordList.ids[i]];
+            if (list.published > 0) {
+                cursors.add(new Cursor(list));
+            }
+        }
+        return new PriorityQueue<>(cursors);
+    }
+
+    // MODIFIES: merge
+    // EFFECTS: returns the smallest entry id at the cursors of merge (not empty), moving past it in every list
+    private static int next(PriorityQueue<Cursor> merge) {
+        int id = merge.peek().current();
+        while (!merge.isEmpty() && merge.peek().current() == id) {
+            Cursor cursor = merge.poll();
+            if (++cursor.position < cursor.size) {
+                merge.add(cursor);
+            }
+        }
+        return id;
+    }
+
+    // EFFECTS: returns whether the lower-case path matches every query word (see search)
+    private static boolean matchesAll(String path, List<String> queryWords, boolean prefix) {
+        for (String word : queryWords) {
+            if (prefix || word.length() < MIN_SUBSTRING ? !hasWordStartingWith(path, word) : !path.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns whether one of the words of path starts with start
+    private static boolean hasWordStartingWith(String path, String start) {
+        for (int i = path.indexOf(start); i != -1; i = path.indexOf(start, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(path.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // EFFECTS: returns the distinct words of s (runs of letters and digits), in lower case, in order
+    static List<String> wordsOf(String s) {
+        String lower = s.toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inWord && start == -1) {
+                start = i;
+            } else if (!inWord && start != -1) {
+                String word = lower.substring(start, i);
+                if (!result.contains(word)) {
+                    result.add(word);
+                }
+                start = -1;
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // EFFECTS: returns the three characters of word starting at index i, packed into a long
+    private static long trigramAt(String word, int i) {
+        return ((long) word.charAt(i) << 32) | ((long) word.charAt(i + 1) << 16) | word.charAt(i + 2);
+    }
+}
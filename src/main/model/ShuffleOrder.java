@@ -0,0 +1,113 @@
+package model;
+
+// Represents a pseudo-random order of the values [0, getDomainSize()), computed on demand from a seed: the
+// value at any position, and the position of any value, take O(1) time and no memory per value.
+// The order is a bijection built from invertible steps modulo a power of two (adding a key, multiplying by an
+// odd number, xor-ing in the high bits), so every value appears at exactly one position.
+public class ShuffleOrder {
+    private static final int ROUNDS = 3;
+
+    private final long seed;
+    private final int bits;
+    private final long mask;
+    private final int shift;
+    private final long[] keys = new long[ROUNDS];
+    private final long[] multipliers = new long[ROUNDS];
+    private final long[] inverses = new long[ROUNDS];
+
+    // EFFECTS: initializes an order (determined by seed) over at least twice size values, so values up to
+    //          twice size are covered without a new order
+    //          throws IllegalArgumentException if size is negative
+    public ShuffleOrder(long seed, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        this.seed = seed;
+        int b = 1;
+        while (b < 32 && (1L << b) < 2L * size) {
+            b++;
+        }
+        bits = b;
+        mask = (1L << bits) - 1;
+        shift = (bits + 1) / 2;
+        long state = seed;
+        for (int i = 0; i < ROUNDS; i++) {
+            state = mix(state);
+            keys[i] = state & mask;
+            state = mix(state);
+            multipliers[i] = (state | 1) & mask;
+            inverses[i] = inverseOf(multipliers[i]) & mask;
+        }
+    }
+
+    // EFFECTS: returns the value at given position
+    //          throws IndexOutOfBoundsException if position is not in [0, getDomainSize())
+    public int valueAt(long position) {
+        checkInDomain(position);
+        long x = position;
+        for (int i = 0; i < ROUNDS; i++) {
+            x = (x + keys[i]) & mask;
+            x = (x * multipliers[i]) & mask;
+            x ^= x >>> shift;
+        }
+        return (int) x;
+    }
+
+    // EFFECTS: returns the position of given value
+    //          throws IndexOutOfBoundsException if value is not in [0, getDomainSize())
+    public long positionOf(int value) {
+        checkInDomain(value);
+        long x = value;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            x ^= x >>> shift; // shift is at least half the bits, so this undoes the xor
+            x = (x * inverses[i]) & mask;
+            x = (x - keys[i]) & mask;
+        }
+        return x;
+    }
+
+    // EFFECTS: returns whether value has a position in this order
+    public boolean covers(int value) {
+        return value >= 0 && value <= mask;
+    }
+
+    // EFFECTS: returns the number of positions (a power of two)
+    public long getDomainSize() {
+        return mask + 1;
+    }
+
+    // EFFECTS: returns the seed of this order
+    public long getSeed() {
+        return seed;
+    }
+
+    // EFFECTS: returns the order for the next cycle, covering values up to twice size, with a seed derived
+    //          from this one
+    public ShuffleOrder next(int size) {
+        return new ShuffleOrder(mix(seed), size);
+    }
+
+    // EFFECTS: throws IndexOutOfBoundsException if x is not in [0, getDomainSize())
+    private void checkInDomain(long x) {
+        if (x < 0 || x > mask) {
+            throw new IndexOutOfBoundsException("Position: " + x + ", Size: " + (mask + 1));
+        }
+    }
+
+    // EFFECTS: returns a well-mixed 64-bit hash of x (the SplitMix64 step)
+    private static long mix(long x) {
+        long z = x + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // EFFECTS: returns the inverse of odd number m modulo 2^64 (by Newton's iteration)
+    private static long inverseOf(long m) {
+        long inverse = m;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - m * inverse;
+        }
+        return inverse;
+    }
+}
@@ -0,0 +1,218 @@
+package model;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a compact list of songs for very large catalogs: instead of one SoundFile per song, the paths are
+// kept in a StringTable and the durations, formats and flags in primitive arrays, one element per song (about
+// 40 bytes per song plus its path). Songs are handed out as CatalogEntry views, made on demand.
+public class SongCatalog implements Iterable<CatalogEntry> {
+    public static final int FLAG_LOOPING = 1;
+    public static final int FLAG_MUTED = 2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final StringTable paths = new StringTable();
+    private int[] entryOfPath = new int[INITIAL_CAPACITY]; // path id -> index of its song, -1 if removed
+    private int[] pathIds = new int[INITIAL_CAPACITY];
+    private long[] durations = new long[INITIAL_CAPACITY]; // in microseconds
+    private short[] formatIds = new short[INITIAL_CAPACITY]; // index into formats
+    private byte[] flags = new byte[INITIAL_CAPACITY]; // FLAG_* bits
+    private int length = 0;
+    private final ArrayList<AudioFormat> formats = new ArrayList<>(); // distinct formats of the songs
+    private final HashMap<String, Integer> formatIndex = new HashMap<>(); // format description -> formats index
+
+    // MODIFIES: this
+    // EFFECTS: reads the header of the sound file at path c and adds it to the end of the catalog
+    //          returns Songs.ADDSTATUS_SUCCESSFUL if done, Songs.ADDSTATUS_EXISTS if it is already in the catalog
+    //          returns Songs.ADDSTATUS_UNSUPPORTED if the file is not supported
+    //          returns Songs.ADDSTATUS_ERROR if not found or the header could not be read
+    public int add(String c) {
+        if (contains(c)) {
+            return Songs.ADDSTATUS_EXISTS;
+        }
+        try {
+            return add(new SoundFile(c));
+        } catch (Exception e) {
+            return Songs.statusOf(e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the path, length and format of sf (and whether it loops or is muted) to the end of the catalog
+    //          returns Songs.ADDSTATUS_SUCCESSFUL if done, Songs.ADDSTATUS_EXISTS if it is already in the catalog
+    public int add(SoundFile sf) {
+        int songFlags = (sf.isLooping() ? FLAG_LOOPING : 0) | (sf.isMuted() ? FLAG_MUTED : 0);
+        return add(sf.getString(), sf.length(), sf.getFormat(), songFlags);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a song with given path, length in microseconds, format and FLAG_* bits to the end of the
+    //          catalog, without reading the file
+    //          returns Songs.ADDSTATUS_SUCCESSFUL if done, Songs.ADDSTATUS_EXISTS if it is already in the catalog
+    public int add(String c, long durationMicros, AudioFormat format, int songFlags) {
+        int interned = paths.size();
+        int pathId = paths.intern(c);
+        boolean newPath = paths.size() > interned;
+        if (!newPath && entryOfPath[pathId] != -1) {
+            return Songs.ADDSTATUS_EXISTS;
+        }
+        ensureCapacity();
+        if (pathId >= entryOfPath.length) {
+            entryOfPath = Arrays.copyOf(entryOfPath, entryOfPath.length + (entryOfPath.length >> 1));
+        }
+        entryOfPath[pathId] = length;
+        pathIds[length] = pathId;
+        durations[length] = durationMicros;
+        formatIds[length] = formatIdOf(format);
+        flags[length] = (byte) songFlags;
+        length++;
+        return Songs.ADDSTATUS_SUCCESSFUL;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the index of format in formats, adding it if no equal format is there yet
+    private short formatIdOf(AudioFormat format) {
+        String key = format.toString();
+        Integer id = formatIndex.get(key);
+        if (id == null) {
+            id = formats.size();
+            formats.add(format);
+            formatIndex.put(key, id);
+        }
+        return (short) (int) id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the per-song arrays by half if they are full
+    private void ensureCapacity() {
+        if (length < pathIds.length) {
+            return;
+        }
+        int capacity = length + (length >> 1);
+        pathIds = Arrays.copyOf(pathIds, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        formatIds = Arrays.copyOf(formatIds, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the song with path c, returns true if done, false if it is not in the catalog
+    //          (the songs after it are shifted down; its path stays in the string table for a later add)
+    public boolean remove(String c) {
+        int index = indexOf(c);
+        if (index == -1) {
+            return false;
+        }
+        entryOfPath[pathIds[index]] = -1;
+        int moved = length - index - 1;
+        System.arraycopy(pathIds, index + 1, pathIds, index, moved);
+        System.arraycopy(durations, index + 1, durations, index, moved);
+        System.arraycopy(formatIds, index + 1, formatIds, index, moved);
+        System.arraycopy(flags, index + 1, flags, index, moved);
+        length--;
+        for (int i = index; i < length; i++) {
+            entryOfPath[pathIds[i]] = i;
+        }
+        return true;
+    }
+
+    // EFFECTS: returns the index of the song with path c, -1 if it is not in the catalog
+    public int indexOf(String c) {
+        int pathId = paths.indexOf(c);
+        return pathId == -1 ? -1 : entryOfPath[pathId];
+    }
+
+    // EFFECTS: returns whether the song with path c is in the catalog
+    public boolean contains(String c) {
+        return indexOf(c) != -1;
+    }
+
+    // EFFECTS: returns a view of the song at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, getLength())
+    public CatalogEntry get(int i) {
+        checkIndex(i);
+        return new CatalogEntry(this, i);
+    }
+
+    // EFFECTS: returns the path of the song at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, getLength())
+    public String getString(int i) {
+        checkIndex(i);
+        return paths.get(pathIds[i]);
+    }
+
+    // EFFECTS: returns the length in microseconds of the song at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, getLength())
+    public long getDuration(int i) {
+        checkIndex(i);
+        return durations[i];
+    }
+
+    // EFFECTS: returns the format of the song at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, getLength())
+    public AudioFormat getFormat(int i) {
+        checkIndex(i);
+        return formats.get(formatIds[i]);
+    }
+
+    // EFFECTS: returns the FLAG_* bits of the song at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, getLength())
+    public int getFlags(int i) {
+        checkIndex(i);
+        return flags[i];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the FLAG_* bits of the song at index i
+    //          throws IndexOutOfBoundsException if i is not in [0, getLength())
+    public void setFlags(int i, int songFlags) {
+        checkIndex(i);
+        flags[i] = (byte) songFlags;
+    }
+
+    // EFFECTS: gets the number of songs
+    public int getLength() {
+        return length;
+    }
+
+    // EFFECTS: returns whether there are no songs
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    // EFFECTS: throws IndexOutOfBoundsException if i is not in [0, getLength())
+    private void checkIndex(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + length);
+        }
+    }
+
+    @Override
+    // EFFECTS: returns an iterator over views of the songs, in order
+    public Iterator<CatalogEntry> iterator() {
+        return new Iterator<CatalogEntry>() {
+            private int next = 0;
+
+            @Override
+            // EFFECTS: returns whether there are songs left
+            public boolean hasNext() {
+                return next < length;
+            }
+
+            @Override
+            // MODIFIES: this
+            // EFFECTS: returns a view of the next song
+            //          throws NoSuchElementException if there are none left
+            public CatalogEntry next() {
+                if (next >= length) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+}
@@ -1,13 +1,47 @@
 package model;
 
 import javax.sound.sampled.UnsupportedAudioFileException;
+import java.text.Collator;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // represents a cluster of songs (e.g. a playlist)
+// Every change publishes an immutable PlaylistSnapshot; the getters read the latest one, so other threads
+// (e.g. the UI) always see a consistent playlist without locking. Once shared, a Songs instance is only changed
+// on the PlayerActor thread; events from the audio threads (end of track, gapless transitions) are sent there.
+// The songs are kept in an EntryTree under increasing labels, so finding, adding, removing and moving songs
+// takes O(log n) time and never renumbers the songs after them.
+// Listeners are told of changes on the player thread, once per run of queued commands, so a burst of changes
+// (e.g. adding many songs) reaches them as one PlaylistEvent.
+// Edits (adding, removing, clearing and reordering songs) can be undone and redone without limit: the songs are
+// kept in persistent structures, so each version in the edit history costs only the O(log n) nodes it changed.
 public class Songs implements Iterable<SoundFile> {
 
-    private ArrayList<SoundFile> files;
+    private EntryTree<SoundFile> files; // shared with snapshots
+    private PersistentHashMap<EntryPath, Long> labels; // path of each sound file -> its label in files
+    private PlaylistStats totals = new PlaylistStats(); // kept up to date as songs are added and removed
+    private PlaylistStats publishedTotals = totals.copy(); // copy of totals shared with snapshots
+    private volatile PlaylistSnapshot snapshot;
+    private volatile PlaylistSnapshot notified; // snapshot the listeners were last told of
+    private final CopyOnWriteArrayList<PlaylistListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger pendingChanges = new AtomicInteger(); // CHANGED_* bits not told to listeners yet
     public static final int PLAYSTATUS_NOTFOUND = 2;
     public static final int PLAYSTATUS_SUCCESSFUL = 0;
     public static final int ADDSTATUS_SUCCESSFUL = 0;
@@ -16,35 +50,180 @@ public class Songs implements Iterable<SoundFile> {
     public static final int ADDSTATUS_UNSUPPORTED = 4;
     public static final int SKIPSTATUS_SUCCESSFUL = 0;
     public static final int SKIPSTATUS_NOTPLAYING = 1;
+    public static final int STATE_STOPPED = 0;
+    public static final int STATE_PLAYING = 1;
+    public static final int STATE_PAUSED = 2;
     public static final float MAX_VOLUME = (float) 6.0206;
     public static final float MIN_VOLUME = (float) -80;
-    private static final long PLAYLIST_LOOP_ACC = 200;
+    public static final int HISTORY_SIZE = 100;
+    public static final int SORT_PATH = 0;
+    public static final int SORT_NAME = 1; // file name, without the directory
+    public static final int SORT_DURATION = 2;
+    public static final int SORT_FORMAT = 3; // file type, then sample rate
+    public static final int SORT_ADDED = 4;
+    public static final int SORT_DESCENDING = 1 << 3; // with a SORT_* key, sorts by it in reverse order
+    private static final long LABEL_GAP = 1L << 20; // distance between the labels of songs added at the end
+    private static ExecutorService probePool; // reads the headers of files added with addAll
     private float volume = 0; // volume could be static if the volume stays the same across all playlists
-    private boolean isPaused = false;
     private boolean singleSongLooping = false;
-    private boolean playlistLooping = false;
+    private volatile boolean playlistLooping = false;
     private boolean isMuted = false;
-    private int lastIndexPlayed = -1;
-    private Thread playlistLooper;
+    private boolean gapless = false;
+    private long crossfadeMillis = 0;
+    private volatile int state = STATE_STOPPED; // state of the song at lastIndexPlayed
+    private volatile int lastIndexPlayed = -1;
+    private PersistentHashMap<EntryPath, Integer> ids; // path of each sound file -> its id (never reused)
+    private PersistentHashMap<Integer, SoundFile> byId; // id -> sound file, for the songs still in the playlist
+    private PersistentHashMap<EntryPath, SortKeys> sortKeys; // path of each sound file -> its sort keys
+    private final Collator collator = Collator.getInstance(); // orders paths and names for sorting
+    private SearchIndex searchIndex; // index the paths of added songs are added to, null if none
+    private int nextId = 0;
+    private final ArrayDeque<Version> undoStack = new ArrayDeque<>(); // versions before each edit, latest first
+    private final ArrayDeque<Version> redoStack = new ArrayDeque<>(); // versions undone, latest first
+    private int settingsChanges = 0; // number of volume, mute and loop changes, which apply to all songs
+    private IntRingBuffer queue; // ids of the songs to play next, before continuing in playlist order
+    private boolean queueChanged = false; // whether queue changed since the last snapshot
+    private List<String> publishedQueue = Collections.emptyList(); // paths of the queued songs shared with snapshots
+    private IntRingBuffer history; // ids of the songs played before the current one, most recent last
+    private ShuffleOrder shuffle; // order of the shuffle keys in the current shuffle cycle, null if not shuffling
+    private int[] shuffleIds = new int[0]; // shuffle key -> song id; the keys are dense, unlike the ids
+    private int shuffleKeyCount = 0; // keys handed out since the keys were last compacted
+    private HashMap<Integer, Integer> shuffleKeys = new HashMap<>(); // song id -> its shuffle key
+    private int cycleStartId = -1; // id of the song that would start the next shuffle cycle, -1 if not known
+    private int followerId = -1; // id of the song queued to follow the current one gaplessly, -1 if none
+
+    // Represents the songs of the playlist at one point of its edit history (sharing its nodes with the others)
+    private static final class Version {
+        private final EntryTree<SoundFile> files;
+        private final PersistentHashMap<EntryPath, Long> labels;
+        private final PersistentHashMap<EntryPath, Integer> ids;
+        private final PersistentHashMap<Integer, SoundFile> byId;
+        private final PersistentHashMap<EntryPath, SortKeys> sortKeys;
+        private final PlaylistStats totals; // unmodifiable
+        private final int settingsChanges; // settingsChanges of the playlist when this version was current
+
+        // EFFECTS: initializes a version of the songs of s
+        private Version(Songs s) {
+            files = s.files;
+            labels = s.labels;
+            ids = s.ids;
+            byId = s.byId;
+            sortKeys = s.sortKeys;
+            totals = s.publishedTotals;
+            settingsChanges = s.settingsChanges;
+        }
+    }
 
     // EFFECTS: initializes empty songs list.
     public Songs() {
-        files = new ArrayList<>();
+        files = EntryTree.empty();
+        labels = PersistentHashMap.empty();
+        ids = PersistentHashMap.empty();
+        byId = PersistentHashMap.empty();
+        sortKeys = PersistentHashMap.empty();
+        queue = new IntRingBuffer();
+        history = new IntRingBuffer(HISTORY_SIZE);
+        publish(0);
+        notified = snapshot;
+    }
+
+    // EFFECTS: returns the latest snapshot of the playlist and its playback state
+    public PlaylistSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // MODIFIES: this, index
+    // EFFECTS: adds the paths of the songs, and of every song added from now on, to index (null for none)
+    public void setSearchIndex(SearchIndex index) {
+        searchIndex = index;
+        if (index != null) {
+            for (SoundFile sf : files) {
+                index.add(sf.getPath());
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a listener, told of every later change to the playlist
+    public void addListener(PlaylistListener listener) {
+        if (listeners.isEmpty()) {
+            notified = snapshot;
+        }
+        listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes a listener added with addListener
+    public void removeListener(PlaylistListener listener) {
+        listeners.remove(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: publishes a snapshot of the current songs and playback state (copying the totals only if songs
+    //          were added or removed); if anything of the given CHANGED_* kinds changed, the listeners are told
+    //          once the commands queued on the player thread have run
+    private void publish(int changes) {
+        if ((changes & (PlaylistEvent.CHANGED_ADDED | PlaylistEvent.CHANGED_REMOVED)) != 0) {
+            publishedTotals = totals.copy();
+        }
+        if (queueChanged || (changes & (PlaylistEvent.CHANGED_ADDED | PlaylistEvent.CHANGED_REMOVED)) != 0) {
+            publishedQueue = Collections.unmodifiableList(queuedPaths()); // removed or restored queued songs
+            queueChanged = false;
+        }
+        snapshot = new PlaylistSnapshot(files, labels, publishedTotals, publishedQueue, lastIndexPlayed, state,
+                volume, isMuted, singleSongLooping, playlistLooping, shuffle != null);
+        if (changes != 0 && !listeners.isEmpty() && pendingChanges.getAndUpdate(p -> p | changes) == 0) {
+            onPlayerThread(this::notifyListeners);
+        }
+    }
+
+    // EFFECTS: on the player thread - tells the listeners of all changes published since they were last told
+    private void notifyListeners() {
+        PlaylistEvent event = new PlaylistEvent(this, pendingChanges.getAndSet(0), notified, snapshot);
+        notified = event.getAfter();
+        for (PlaylistListener listener : listeners) {
+            try {
+                listener.playlistChanged(event);
+            } catch (RuntimeException e) {
+                System.err.println("WARNING: playlist listener failed: " + e);
+            }
+        }
     }
 
     // EFFECTS: gets the string name of sound file index.
     public String getString(int i) {
-        return files.get(i).getString();
+        return snapshot.getString(i);
     }
 
     // EFFECTS: gets the soundfile of given index
     public SoundFile get(int i) {
-        return files.get(i);
+        return snapshot.get(i);
     }
 
     // EFFECTS: get size of sound files playlist
     public int getLength() {
-        return files.size();
+        return snapshot.getLength();
+    }
+
+    // EFFECTS: returns the totals over the songs (number, length, size, file types and sample rates), in O(1)
+    public PlaylistStats getStats() {
+        return snapshot.getStats();
+    }
+
+    // EFFECTS: gets index of the sound file with the given path, -1 if it is not in the playlist
+    public int indexOf(String c) {
+        return indexOf(EntryPath.find(c));
+    }
+
+    // EFFECTS: gets index of the sound file with the given path (null for none), -1 if it is not in the playlist
+    private int indexOf(EntryPath path) {
+        Long label = labels.get(path);
+        return label == null ? -1 : files.indexOf(label);
+    }
+
+    // EFFECTS: returns whether the sound file with the given path is in the playlist
+    public boolean contains(String c) {
+        return labels.containsKey(EntryPath.find(c));
     }
 
     // MODIFIES: this
@@ -53,20 +232,299 @@ public class Songs implements Iterable<SoundFile> {
         if (lastIndexPlayed == -1 && files.size() == 0) {
             return SKIPSTATUS_NOTPLAYING;
         }
-        int indexPlaying = indexPlaying();
-        int indexToPlay = indexPlaying == -1 ? lastIndexPlayed == -1 ? 0 : lastIndexPlayed : indexPlaying;
-        if (!files.get(indexToPlay).isPlaying()) {
+        int indexToPlay = lastIndexPlayed == -1 ? 0 : lastIndexPlayed;
+        int changes = PlaylistEvent.CHANGED_POSITION;
+        if (state != STATE_PLAYING) {
             stopAll();
-            files.get(indexToPlay).play();
+            started(indexToPlay);
+            queueGaplessAfter(indexToPlay);
+            changes |= PlaylistEvent.CHANGED_STARTED;
         }
         files.get(indexToPlay).jumpTo(micros);
-        lastIndexPlayed = indexToPlay;
+        publish(changes);
         return SKIPSTATUS_SUCCESSFUL;
     }
 
     // EFFECTS: gets last played index
     public int getLastIndexPlayed() {
-        return lastIndexPlayed;
+        return snapshot.getLastIndexPlayed();
+    }
+
+    // EFFECTS: gets the playback state of the last played song: STATE_STOPPED, STATE_PLAYING or STATE_PAUSED
+    public int getState() {
+        return snapshot.getState();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plays the song at index and makes it the current song, remembering the previous one in the history
+    private void started(int index) {
+        started(index, true);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plays the song at index and makes it the current song, remembering the previous one in the history
+    //          if remember
+    private void started(int index, boolean remember) {
+        SoundFile sf = files.get(index);
+        sf.play();
+        becameCurrent(index, remember);
+        state = sf.isPlaying() ? STATE_PLAYING : STATE_STOPPED;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes the song at index the current song; unless it already was, the previous one is
+    //          remembered in the history (if remember) and the song is taken off the front of the queue
+    private void becameCurrent(int index, boolean remember) {
+        if (shuffle != null && idOf(index) == cycleStartId) { // also if the song starts the cycle after its own
+            shuffle = shuffle.next(shuffleKeyCount);
+        }
+        cycleStartId = -1;
+        if (index == lastIndexPlayed) {
+            return;
+        }
+        if (remember && lastIndexPlayed != -1) {
+            history.addLast(idOf(lastIndexPlayed));
+        }
+        if (queue.peekFirst() == idOf(index)) {
+            queue.pollFirst();
+            queueChanged = true;
+        }
+        lastIndexPlayed = index;
+    }
+
+    // EFFECTS: returns the id of the song at index
+    private int idOf(int index) {
+        return ids.get(files.get(index).getPath());
+    }
+
+    // EFFECTS: returns the index of the song with the given id, -1 if it has been removed
+    private int indexOfId(int id) {
+        SoundFile sf = byId.get(id);
+        return sf == null ? -1 : indexOf(sf.getPath());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the index of the song to play after the one at index (-1 for the first song): the first
+    //          queued song still in the playlist (dropping removed ones), otherwise the next one in playlist or
+    //          shuffle order, wrapping around only if wrap; returns -1 if there is none
+    private int nextIndex(int index, boolean wrap) {
+        int queued = queuedIndex();
+        if (queued != -1) {
+            return queued;
+        } else if (shuffle != null) {
+            return shuffledAfter(index, wrap);
+        }
+        if (index + 1 < files.size()) {
+            return index + 1;
+        }
+        return wrap && !files.isEmpty() ? 0 : -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the index of the song after the one at index (-1 for the first song) in the shuffle
+    //          cycle; at the end of the cycle returns the first song of the next one if wrap (remembering it
+    //          in cycleStartId, so the next cycle begins when it is played), -1 otherwise
+    private int shuffledAfter(int index, boolean wrap) {
+        cycleStartId = -1;
+        int key = index == -1 ? -1 : shuffleKeyOf(index);
+        if (index == -1 || shuffle.covers(key)) {
+            int found = liveInShuffle(shuffle, index == -1 ? 0 : shuffle.positionOf(key) + 1, 1);
+            if (found != -1 || !wrap) {
+                return found;
+            }
+        } else if (!wrap) {
+            return -1;
+        }
+        int found = liveInShuffle(shuffle.next(shuffleKeyCount), 0, 1);
+        if (found != -1) {
+            cycleStartId = idOf(found);
+        }
+        return found;
+    }
+
+    // EFFECTS: returns the index of the first song still in the playlist met walking order from position by
+    //          step (1 or -1), -1 if there is none before the end of the order
+    //          (the keys are compacted once most are dead, so this takes O(1) expected steps)
+    private int liveInShuffle(ShuffleOrder order, long position, int step) {
+        for (long p = position; p >= 0 && p < order.getDomainSize(); p += step) {
+            int key = order.valueAt(p);
+            int index = key < shuffleKeyCount ? indexOfId(shuffleIds[key]) : -1;
+            if (index != -1) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: returns the shuffle key of the song at index, -1 if it has none
+    private int shuffleKeyOf(int index) {
+        Integer key = shuffleKeys.get(idOf(index));
+        return key == null ? -1 : key;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: gives the song with given id the next shuffle key
+    private void addShuffleKey(int id) {
+        if (shuffleKeyCount == shuffleIds.length) {
+            shuffleIds = Arrays.copyOf(shuffleIds, Math.max(16, shuffleKeyCount * 2));
+        }
+        shuffleKeys.put(id, shuffleKeyCount);
+        shuffleIds[shuffleKeyCount++] = id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if shuffling and the keys of removed songs outnumber the songs (or force), gives the songs dense
+    //          keys again, in playlist order, and starts a new shuffle cycle over them
+    private void compactShuffle(boolean force) {
+        if (shuffle == null || !force && shuffleKeyCount - files.size() <= files.size()) {
+            return;
+        }
+        resetShuffleKeys(true);
+        shuffle = shuffle.next(shuffleKeyCount);
+        cycleStartId = -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops all shuffle keys, then gives the songs dense keys in playlist order if assign
+    private void resetShuffleKeys(boolean assign) {
+        shuffleIds = new int[0];
+        shuffleKeyCount = 0;
+        shuffleKeys = new HashMap<>();
+        if (assign) {
+            for (SoundFile sf : files) {
+                addShuffleKey(ids.get(sf.getPath()));
+            }
+        }
+    }
+
+    // EFFECTS: returns the index of the song before the one at index in playlist or shuffle order, -1 if it is
+    //          the first one (of the playlist or of the shuffle cycle)
+    public int indexBefore(int index) {
+        if (shuffle == null) {
+            return index - 1;
+        }
+        int key = shuffleKeyOf(index);
+        return shuffle.covers(key) ? liveInShuffle(shuffle, shuffle.positionOf(key) - 1, -1) : -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns shuffle mode on (with a random seed) or off; while it is on, playNext and auto-advance play
+    //          every song once per cycle in a pseudo-random order, and each cycle is shuffled anew
+    public void setShuffle(boolean on) {
+        setShuffle(on, new Random().nextLong());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns shuffle mode on (with the order determined by seed) or off; songs added while it is on
+    //          join the current cycle or, when there are many, the next one; removing songs never reshuffles
+    public void setShuffle(boolean on, long seed) {
+        resetShuffleKeys(on);
+        shuffle = on ? new ShuffleOrder(seed, shuffleKeyCount) : null;
+        cycleStartId = -1;
+        queueGaplessAfter(currentIndex());
+        publish(PlaylistEvent.CHANGED_SHUFFLE);
+    }
+
+    // EFFECTS: returns the number of positions of the current shuffle order, 0 if not shuffling
+    long getShuffleDomainSize() {
+        return shuffle == null ? 0 : shuffle.getDomainSize();
+    }
+
+    // EFFECTS: returns whether shuffle mode is on
+    public boolean isShuffling() {
+        return snapshot.isShuffling();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the index of the first queued song still in the playlist (dropping removed ones before
+    //          it), -1 if there is none
+    private int queuedIndex() {
+        while (!queue.isEmpty()) {
+            int queued = indexOfId(queue.peekFirst());
+            if (queued != -1) {
+                return queued;
+            }
+            queue.pollFirst();
+        }
+        return -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the song with the given path to the end of the play queue ("add to queue");
+    //          returns false if it is not in the playlist
+    public boolean enqueue(String c) {
+        Integer id = ids.get(EntryPath.find(c));
+        if (id == null) {
+            return false;
+        }
+        queue.addLast(id);
+        queueChanged = true;
+        queueGaplessAfter(currentIndex());
+        publish(0);
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the song with the given path to the front of the play queue ("play next");
+    //          returns false if it is not in the playlist
+    public boolean enqueueNext(String c) {
+        Integer id = ids.get(EntryPath.find(c));
+        if (id == null) {
+            return false;
+        }
+        queue.addFirst(id);
+        queueChanged = true;
+        queueGaplessAfter(currentIndex());
+        publish(0);
+        return true;
+    }
+
+    // EFFECTS: returns the paths of the queued songs still in the playlist, in the order they will be played
+    public ArrayList<String> getQueue() {
+        return new ArrayList<>(snapshot.getQueue());
+    }
+
+    // EFFECTS: returns the paths of the queued songs still in the playlist, in the order they will be played
+    private ArrayList<String> queuedPaths() {
+        ArrayList<String> result = new ArrayList<>();
+        for (int i = 0; i < queue.size(); i++) {
+            SoundFile sf = byId.get(queue.get(i));
+            if (sf != null) {
+                result.add(sf.getString());
+            }
+        }
+        return result;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the play queue (playback continues in playlist order)
+    public void clearQueue() {
+        queue.clear();
+        queueChanged = true;
+        queueGaplessAfter(currentIndex());
+        publish(0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plays the most recently played song before the current one that is still in the playlist,
+    //          putting the current song at the front of the queue; returns false if there is no such song
+    public boolean playPrevious() {
+        int previous = -1;
+        while ((previous == -1 || previous == lastIndexPlayed) && !history.isEmpty()) {
+            previous = indexOfId(history.pollLast());
+        }
+        if (previous == -1 || previous == lastIndexPlayed) {
+            return false;
+        }
+        if (lastIndexPlayed != -1) {
+            queue.addFirst(idOf(lastIndexPlayed));
+            queueChanged = true;
+        }
+        stopAll();
+        started(previous, false);
+        queueGaplessAfter(previous);
+        publish(PlaylistEvent.CHANGED_STARTED);
+        return true;
     }
 
     // MODIFIES: this
@@ -77,6 +535,8 @@ public class Songs implements Iterable<SoundFile> {
         for (SoundFile sf : files) {
             sf.setVolume(v);
         }
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_VOLUME);
     }
 
     // MODIFIES: this
@@ -86,15 +546,18 @@ public class Songs implements Iterable<SoundFile> {
         for (SoundFile sf : files) {
             sf.mute();
         }
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_MUTE);
     }
 
     // EFFECTS: gets current position in sound file
     public long getCurrentPosition() {
-        int index = indexPlaying();
+        PlaylistSnapshot current = snapshot;
+        int index = current.indexPlaying();
         if (index == -1) {
             return -1;
         }
-        return files.get(index).getTimePosition();
+        return current.get(index).getTimePosition();
     }
 
     // MODIFIES: this
@@ -104,11 +567,13 @@ public class Songs implements Iterable<SoundFile> {
         for (SoundFile sf : files) {
             sf.unmute();
         }
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_MUTE);
     }
 
     // EFFECTS: gets current volume, assuming volume wasn't changed
     public float getVolume() {
-        return volume;
+        return snapshot.getVolume();
     }
 
     // MODIFIES: this
@@ -116,41 +581,38 @@ public class Songs implements Iterable<SoundFile> {
     //          returns PLAYSTATUS_SUCCESSFUL if it could play, PLAYSTATUS_NOTFOUND if non-existent
     public int play(String c) {
         stopAll();
-        isPaused = false;
-        for (int i = 0; i < files.size(); i++) {
-            if (files.get(i).getString().equals(c)) {
-                files.get(i).play();
-                lastIndexPlayed = i;
-                return PLAYSTATUS_SUCCESSFUL;
-            }
+        int index = indexOf(c);
+        if (index == -1) {
+            return PLAYSTATUS_NOTFOUND;
         }
-        return PLAYSTATUS_NOTFOUND;
+        started(index);
+        queueGaplessAfter(index);
+        publish(PlaylistEvent.CHANGED_STARTED);
+        return PLAYSTATUS_SUCCESSFUL;
     }
 
-    // EFFECTS: converts all the songs to a string of names
+    // EFFECTS: converts all the songs to a string of names, one per line (in O(n) time)
     public String list() {
-        String result = "";
-        for (int i = 0; i < files.size(); i++) {
-            result += files.get(i).getString();
-            if (!(i == files.size() - 1)) {
-                result += "\n";
-            }
+        StringBuilder result = new StringBuilder();
+        String separator = "";
+        for (SoundFile sf : snapshot) {
+            result.append(separator).append(sf.getString());
+            separator = "\n";
         }
-        return result;
+        return result.toString();
     }
 
     // MODIFIES: this
     // EFFECTS: pauses the currently playing song
     //          returns true if successful, false if no song playing
     public boolean pause() {
-        for (SoundFile s : files) {
-            if (s.isPlaying()) {
-                s.pause();
-                isPaused = true;
-                return true;
-            }
+        if (state != STATE_PLAYING) {
+            return false;
         }
-        return false;
+        files.get(lastIndexPlayed).pause();
+        state = STATE_PAUSED;
+        publish(PlaylistEvent.CHANGED_PAUSED);
+        return true;
     }
 
     // MODIFIES: this
@@ -159,52 +621,432 @@ public class Songs implements Iterable<SoundFile> {
         for (SoundFile s : files) {
             s.stop();
         }
-        isPaused = false;
+        int changes = state == STATE_STOPPED ? 0 : PlaylistEvent.CHANGED_FINISHED;
+        state = STATE_STOPPED;
+        publish(changes);
     }
 
     // MODIFIES: this
     // EFFECTS: adds a soundfile to playlist
     //          returns ADDSTATUS_EXISTS if file already exists in playlist
     //          returns ADDSTATUS_UNSUPPORTED if file is not supported
-    //          returns ADDSTATUS_ERROR if not found or Java could not create another audio instance
+    //          returns ADDSTATUS_ERROR if not found or the header could not be read
+    //          only the file header is read here; playback resources are opened on first play
     public int add(String c) {
-        for (SoundFile s : files) {
-            if (s.getString().equals(c)) {
-                return ADDSTATUS_EXISTS;
-            }
+        if (contains(c)) {
+            return ADDSTATUS_EXISTS;
         }
         try {
             SoundFile sf = new SoundFile(c);
-            if (isMuted) {
-                sf.mute();
-            }
-            files.add(sf);
-            return ADDSTATUS_SUCCESSFUL;
-        } catch (UnsupportedAudioFileException e) {
-            return ADDSTATUS_UNSUPPORTED;
+            edited();
+            int status = commit(c, sf);
+            requeueFollower();
+            publish(PlaylistEvent.CHANGED_ADDED);
+            return status;
         } catch (Exception e) {
             //e.printStackTrace();
+            return statusOf(e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds all the given soundfiles to the playlist, in the given order, as if add was called on each;
+    //          their headers are read in parallel on a pool with one thread per processor
+    //          returns the ADDSTATUS_* code of each file, in the given order
+    public int[] addAll(Collection<String> paths) {
+        ExecutorService pool = getProbePool();
+        List<Future<SoundFile>> probes = new ArrayList<>();
+        HashSet<String> probed = new HashSet<>();
+        for (String c : paths) {
+            probes.add(contains(c) || !probed.add(c) ? null : pool.submit(() -> new SoundFile(c)));
+        }
+        return addProbed(paths, probes);
+    }
+
+    // EFFECTS: starts reading the headers of the sound files at paths, in parallel on the pool used by addAll,
+    //          and returns right away with the future sound file of each path, in order (completed with the
+    //          IOException or UnsupportedAudioFileException that failed it, if any; null for a repeated path)
+    public static List<CompletableFuture<SoundFile>> probe(Collection<String> paths) {
+        List<CompletableFuture<SoundFile>> probes = new ArrayList<>();
+        HashSet<String> probed = new HashSet<>();
+        for (String c : paths) {
+            probes.add(!probed.add(c) ? null : CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new SoundFile(c);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, getProbePool()));
+        }
+        return probes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the sound files at paths, in order, as addAll does, from their probes (one per path, as
+    //          returned by probe, or null for a path known to be in the playlist already); does not wait on I/O
+    //          if the probes are done
+    //          returns the ADDSTATUS_* code of each file, in the given order
+    public int[] addProbed(Collection<String> paths, List<? extends Future<SoundFile>> probes) {
+        int[] statuses = new int[probes.size()];
+        Version before = new Version(this);
+        int i = 0;
+        for (String c : paths) {
+            statuses[i] = commit(c, probes.get(i));
+            if (statuses[i++] == ADDSTATUS_SUCCESSFUL && undoStack.peek() != before) {
+                edited(before); // one undo step for all of them
+            }
+        }
+        requeueFollower();
+        publish(PlaylistEvent.CHANGED_ADDED);
+        return statuses;
+    }
+
+    // EFFECTS: returns the pool reading the headers of files added with addAll, creating it if needed
+    private static synchronized ExecutorService getProbePool() {
+        if (probePool == null) {
+            probePool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread thread = new Thread(r, "Songs-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return probePool;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the soundfile once its header has been read by probe (null if it was already in the playlist)
+    //          returns the ADDSTATUS_* code of the file
+    private int commit(String c, Future<SoundFile> probe) {
+        if (probe == null || contains(c)) {
+            return ADDSTATUS_EXISTS;
+        }
+        try {
+            return commit(c, probe.get());
+        } catch (ExecutionException e) {
+            return statusOf(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return ADDSTATUS_ERROR;
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: adds the soundfile sf (with path c) to the end of the playlist, returns ADDSTATUS_SUCCESSFUL
+    private int commit(String c, SoundFile sf) {
+        if (isMuted) {
+            sf.mute();
+        }
+        sf.setOnEnd(() -> trackEnded(sf));
+        long label = files.isEmpty() ? 0 : files.labelAt(files.size() - 1) + LABEL_GAP;
+        files = files.insert(label, sf);
+        labels = labels.put(sf.getPath(), label);
+        totals.add(sf);
+        ids = ids.put(sf.getPath(), nextId);
+        sortKeys = sortKeys.put(sf.getPath(), new SortKeys(sf, nextId, collator));
+        if (searchIndex != null) {
+            searchIndex.add(sf.getPath());
+        }
+        if (shuffle != null) {
+            addShuffleKey(nextId);
+        }
+        byId = byId.put(nextId++, sf);
+        if (playlistLooping && files.size() == 1) {
+            play(c);
+        }
+        return ADDSTATUS_SUCCESSFUL;
+    }
+
+    // EFFECTS: returns the ADDSTATUS_* code for a file whose header could not be read because of e
+    static int statusOf(Throwable e) {
+        return e instanceof UnsupportedAudioFileException ? ADDSTATUS_UNSUPPORTED : ADDSTATUS_ERROR;
+    }
+
     // MODIFIES: this
     // EFFECTS: removes soundfile from playlist, returns true if done, false if impossible
+    //          (the indices of the songs after it are shifted down, as in the list itself)
     public boolean remove(String s) {
-        for (int i = 0; i < files.size(); i++) {
-            if (files.get(i).getString().equals(s)) {
-                files.get(i).stop();
-                files.remove(i);
-                return true;
+        EntryPath path = EntryPath.find(s);
+        int index = indexOf(path);
+        if (index == -1) {
+            return false;
+        }
+        edited();
+        SoundFile removed = files.get(index);
+        files = files.remove(labels.get(path));
+        labels = labels.remove(path);
+        totals.remove(removed);
+        byId = byId.remove(ids.get(path)); // queued and remembered entries of it are skipped from now on
+        ids = ids.remove(path);
+        sortKeys = sortKeys.remove(path);
+        removed.release();
+        int changes = removedAt(index);
+        compactShuffle(false);
+        requeueFollower();
+        publish(changes);
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: updates the current song after the song at index was removed (stopping if it was the current one)
+    //          returns the CHANGED_* changes
+    private int removedAt(int index) {
+        int changes = PlaylistEvent.CHANGED_REMOVED;
+        if (index == lastIndexPlayed) {
+            changes |= state == STATE_STOPPED ? 0 : PlaylistEvent.CHANGED_FINISHED;
+            state = STATE_STOPPED;
+            lastIndexPlayed = -1;
+        } else if (index < lastIndexPlayed) {
+            lastIndexPlayed--;
+        }
+        return changes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a soundfile to playlist at given index (as add, then moved there)
+    //          returns the same codes as add; a file already in the playlist is not moved
+    //          throws IndexOutOfBoundsException if index is not in [0, getLength()]
+    public int insertAt(int index, String c) {
+        if (index < 0 || index > files.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + files.size());
+        }
+        int status = add(c);
+        if (status == ADDSTATUS_SUCCESSFUL) {
+            moveRange(files.size() - 1, files.size(), index);
+            undoStack.pop(); // one undo step for adding and moving it
+        }
+        return status;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the song at index from so that it ends up at index to
+    //          throws IndexOutOfBoundsException if from or to is not in [0, getLength())
+    public void move(int from, int to) {
+        moveRange(from, from + 1, to);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the songs at indices [from, to) so that the first of them ends up at index target (of the
+    //          playlist after the move); takes O(k log n) time for k songs, and the current song keeps playing
+    //          throws IndexOutOfBoundsException if the range is not within the playlist or target is not in
+    //          [0, getLength() - (to - from)]
+    public void moveRange(int from, int to, int target) {
+        List<SoundFile> moved = files.subList(from, to);
+        EntryTree<SoundFile> rest = files.removeRange(from, to);
+        if (target < 0 || target > rest.size()) {
+            throw new IndexOutOfBoundsException("Target: " + target + ", Size: " + rest.size());
+        }
+        edited();
+        SoundFile current = lastIndexPlayed == -1 ? null : files.get(lastIndexPlayed);
+        files = rest;
+        if (labelStep(target, moved.size()) == 0) {
+            relabel(files.subList(0, files.size()), Math.max(LABEL_GAP, moved.size() + 1));
+        }
+        long low = labelBefore(target, moved.size());
+        long step = labelStep(target, moved.size());
+        for (int i = 0; i < moved.size(); i++) {
+            place(moved.get(i), low + step * (i + 1));
+        }
+        afterReorder(current);
+    }
+
+    // EFFECTS: returns the label just before the free labels for count songs put at index target of files
+    private long labelBefore(int target, int count) {
+        if (target > 0) {
+            return files.labelAt(target - 1);
+        }
+        return (files.isEmpty() ? 0 : files.labelAt(0)) - (count + 1) * LABEL_GAP;
+    }
+
+    // EFFECTS: returns the distance between the labels of count songs put evenly at index target of files,
+    //          0 if there is not enough room between the labels of the songs around them
+    private long labelStep(int target, int count) {
+        long low = labelBefore(target, count);
+        long high = target < files.size() ? files.labelAt(target) : low + (count + 1) * LABEL_GAP;
+        return (high - low) / (count + 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: swaps the songs at indices i and j
+    //          throws IndexOutOfBoundsException if i or j is not in [0, getLength())
+    public void swap(int i, int j) {
+        SoundFile first = files.get(i);
+        SoundFile second = files.get(j);
+        if (i == j) {
+            return;
+        }
+        edited();
+        SoundFile current = lastIndexPlayed == -1 ? null : files.get(lastIndexPlayed);
+        long firstLabel = files.labelAt(i);
+        long secondLabel = files.labelAt(j);
+        files = files.remove(firstLabel).remove(secondLabel);
+        place(first, secondLabel);
+        place(second, firstLabel);
+        afterReorder(current);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: puts sf (not in files) into files under the unused label
+    private void place(SoundFile sf, long label) {
+        files = files.insert(label, sf);
+        labels = labels.put(sf.getPath(), label);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sorts the songs by the given SORT_* keys (each optionally | SORT_DESCENDING), the first key
+    //          deciding first; songs equal by every key keep their order. Compares the keys computed when the
+    //          songs were added, so it takes O(n log n) time, and the current song keeps playing at its new index
+    //          throws IllegalArgumentException if there are no keys or one is not a SORT_* key
+    public void sort(int... keys) {
+        Comparator<SortKeys> order = SortKeys.comparator(keys);
+        SortKeys[] sorted = new SortKeys[files.size()];
+        int i = 0;
+        for (SoundFile sf : files) {
+            sorted[i++] = sortKeys.get(sf.getPath());
+        }
+        Arrays.sort(sorted, order); // a stable merge sort
+        List<SoundFile> ordered = new ArrayList<>(sorted.length);
+        for (SortKeys k : sorted) {
+            ordered.add(k.getFile());
+        }
+        edited();
+        SoundFile current = lastIndexPlayed == -1 ? null : files.get(lastIndexPlayed);
+        relabel(ordered, LABEL_GAP);
+        afterReorder(current);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes files the songs of order (the same songs, in another order or not), giving them labels gap
+    //          apart (O(n), needed after sorting, or when repeated moves into the same place have used up the
+    //          room between two labels)
+    private void relabel(List<SoundFile> order, long gap) {
+        List<EntryPath> paths = new ArrayList<>(order.size());
+        List<Long> newLabels = new ArrayList<>(order.size());
+        for (SoundFile sf : order) {
+            paths.add(sf.getPath());
+            newLabels.add(gap * newLabels.size());
+        }
+        files = EntryTree.of(order, gap);
+        labels = PersistentHashMap.of(paths, newLabels);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the songs as they are, before an edit, as the latest step to undo (forgetting the undone
+    //          steps, which can no longer be redone)
+    private void edited() {
+        edited(new Version(this));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records before as the latest step to undo (forgetting the undone steps)
+    private void edited(Version before) {
+        undoStack.push(before);
+        redoStack.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: undoes the latest edit (adding, removing, clearing or reordering songs) not undone yet;
+    //          returns false if there is none
+    public boolean undo() {
+        return step(undoStack, redoStack);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: redoes the latest edit undone since the last other edit; returns false if there is none
+    public boolean redo() {
+        return step(redoStack, undoStack);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: goes back to the latest version in from, recording the current one in to; returns false if from
+    //          is empty
+    private boolean step(ArrayDeque<Version> from, ArrayDeque<Version> to) {
+        if (from.isEmpty()) {
+            return false;
+        }
+        to.push(new Version(this));
+        restore(from.pop());
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes the songs those of version v; the current song stays current if it is in v, and is
+    //          stopped otherwise
+    private void restore(Version v) {
+        SoundFile current = lastIndexPlayed == -1 ? null : files.get(lastIndexPlayed);
+        files = v.files;
+        labels = v.labels;
+        ids = v.ids;
+        byId = v.byId;
+        sortKeys = v.sortKeys;
+        totals = v.totals.modifiableCopy();
+        if (v.settingsChanges != settingsChanges) {
+            applySettings();
+        }
+        int changes = PlaylistEvent.CHANGED_ENTRIES;
+        lastIndexPlayed = current == null ? -1 : indexOf(current.getPath());
+        if (current != null && (lastIndexPlayed == -1 || files.get(lastIndexPlayed) != current)) {
+            current.release();
+            changes |= state == STATE_STOPPED ? 0 : PlaylistEvent.CHANGED_FINISHED;
+            state = STATE_STOPPED;
+            lastIndexPlayed = -1;
+        }
+        compactShuffle(true); // restored songs have no shuffle key
+        queueGaplessAfter(currentIndex());
+        publish(changes);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies the volume, mute and single-song looping settings to every song (songs of an older
+    //          version may have missed later changes to them)
+    private void applySettings() {
+        for (SoundFile sf : files) {
+            sf.setVolume(volume);
+            if (isMuted) {
+                sf.mute();
+            } else {
+                sf.unmute();
+            }
+            if (singleSongLooping) {
+                sf.loop();
+            } else {
+                sf.noLoop();
             }
         }
-        return false;
     }
 
     // MODIFIES: this
-    // EFFECTS: clears the playlist
+    // EFFECTS: after songs were reordered, finds the index of the current song again, re-queues the gapless
+    //          follower and publishes the new order
+    private void afterReorder(SoundFile current) {
+        lastIndexPlayed = current == null ? -1 : indexOf(current.getPath());
+        queueGaplessAfter(currentIndex());
+        publish(PlaylistEvent.CHANGED_MOVED);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the playlist (which can be undone; song ids are not reused, so they stay unique across
+    //          the edit history)
     public void clear() {
-        files.clear();
+        if (!files.isEmpty()) {
+            edited();
+        }
+        for (SoundFile sf : files) {
+            sf.release();
+        }
+        files = EntryTree.empty();
+        labels = PersistentHashMap.empty();
+        totals.clear();
+        ids = PersistentHashMap.empty();
+        byId = PersistentHashMap.empty();
+        sortKeys = PersistentHashMap.empty();
+        queue.clear();
+        history.clear();
+        compactShuffle(true);
+        int changes = PlaylistEvent.CHANGED_REMOVED;
+        changes |= state == STATE_STOPPED ? 0 : PlaylistEvent.CHANGED_FINISHED;
+        state = STATE_STOPPED;
+        lastIndexPlayed = -1;
+        publish(changes);
     }
 
     // MODIFIES: this
@@ -214,6 +1056,8 @@ public class Songs implements Iterable<SoundFile> {
         for (SoundFile sf : files) {
             sf.loop();
         }
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_LOOP);
     }
 
     // MODIFIES: this
@@ -223,104 +1067,202 @@ public class Songs implements Iterable<SoundFile> {
         for (SoundFile sf : files) {
             sf.noLoop();
         }
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_LOOP);
     }
 
     // EFFECTS: gets index of song playing, -1 if none
     public int indexPlaying() {
-        for (int i = 0; i < files.size(); i++) {
-            if (files.get(i).isPlaying()) {
-                return i;
-            }
-        }
-        return -1;
+        return snapshot.indexPlaying();
+    }
+
+    // EFFECTS: gets index of song playing, -1 if none (including changes not published yet)
+    private int currentIndex() {
+        return state == STATE_PLAYING ? lastIndexPlayed : -1;
     }
 
     // MODIFIES: this
-    // EFFECTS: loops the playlist
+    // EFFECTS: loops the playlist: whenever a song ends, the next one (wrapping around) is played.
+    //          Starts playing from the first song if nothing is playing or paused.
     public void loopPlaylist() {
         playlistLooping = true;
-        createAutoPlayer(indexPlaying());
-        playlistLooper.start();
-    }
-
-    // MODIFIES: this
-    // EFFECTS: creates a thread that loops the playlist
-    private void createAutoPlayer(int startingIndex) {
-        Songs ref = this;
-        playlistLooper = new Thread() {
-            @Override
-            public void run() {
-                int startIndex = startingIndex;
-                while (ref.isPlaylistLooping()) {
-                    if (ref.indexPlaying() == -1 && !ref.isEmpty()) {
-                        if (startIndex == ref.files.size() - 1) {
-                            startIndex = 0;
-                        } else {
-                            startIndex++;
-                        }
-                        play(ref.files.get(startIndex).getString());
-                    }
-                    try {
-                        sleep(PLAYLIST_LOOP_ACC);
-                    } catch (InterruptedException e) {
-                        System.err.print("WARNING: playlistLooper interrupted.");
-                    }
-                }
-            }
-        };
+        int index = currentIndex();
+        if (index == -1 && state != STATE_PAUSED && !files.isEmpty()) {
+            play(files.get(0).getString());
+        } else {
+            queueGaplessAfter(index);
+        }
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_LOOP);
+    }
+
+    // EFFECTS: runs an event on the player thread, after the commands queued before it
+    private void onPlayerThread(Runnable event) {
+        PlayerActor.getInstance().submit(this, event);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: called on the player thread when sf has played to its end; if it is still the current song
+    //          (nothing else has been started since), it is now stopped; then the first queued song is played,
+    //          or if the playlist is looping the song after it, wrapping around
+    private void trackEnded(SoundFile sf) {
+        int index = lastIndexPlayed;
+        if (state != STATE_PLAYING || index == -1 || files.get(index) != sf || sf.isPlaying()) {
+            return;
+        }
+        state = STATE_STOPPED;
+        publish(PlaylistEvent.CHANGED_FINISHED);
+        int next = playlistLooping ? nextIndex(index, true) : queuedIndex();
+        if (next != -1) {
+            play(files.get(next).getString());
+        }
     }
 
     // EFFECTS: returns whether the playlist is looping
     public boolean isPlaylistLooping() {
-        return playlistLooping;
+        return snapshot.isPlaylistLooping();
     }
 
     // EFFECTS: returns whether playlist is empty
     public boolean isEmpty() {
-        return files.isEmpty();
+        return snapshot.isEmpty();
     }
 
     // MODIFIES: this
     // EFFECTS: disables looping of playlist
     public void disableLoopPlaylist() {
-        if (playlistLooper != null) {
-            playlistLooper.interrupt();
-            playlistLooper = null;
-        }
         playlistLooping = false;
+        settingsChanges++;
+        publish(PlaylistEvent.CHANGED_LOOP);
     }
 
     // MODIFIES: this
     // EFFECTS: plays next song in playlist
     public void playNext() {
-        if (files.size() == 0) {
+        if (files.size() == 0 || crossfadeToNext()) {
             return;
         }
-        int index = lastIndexPlayed;
+        int next = nextIndex(lastIndexPlayed, true);
         stopAll();
-        if (index == -1 || index == files.size() - 1) {
-            files.get(0).play();
-            lastIndexPlayed = 0;
-        } else {
-            files.get(index + 1).play();
-            lastIndexPlayed = index + 1;
+        started(next);
+        queueGaplessAfter(next);
+        publish(PlaylistEvent.CHANGED_STARTED);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if crossfading is enabled and a song is playing, fades from it into the next song
+    //          returns false if nothing was faded (the caller should switch songs the normal way)
+    private boolean crossfadeToNext() {
+        int index = currentIndex();
+        if (crossfadeMillis == 0 || index == -1 || files.size() < 2) {
+            return false;
+        }
+        int next = nextIndex(index, true);
+        if (next == index) {
+            return false;
+        }
+        return files.get(index).crossfadeTo(files.get(next), crossfadeMillis * 1000, transitionTo(idOf(next)));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the crossfade between consecutive songs (for playNext and auto-advance) in milliseconds;
+    //          0 disables it. Auto-advance with a crossfade follows the same rules as gapless mode.
+    public void setCrossfade(long millis) {
+        crossfadeMillis = Math.max(0, millis);
+        int index = currentIndex();
+        if (index != -1) {
+            queueGaplessAfter(index);
+        }
+    }
+
+    // EFFECTS: returns the crossfade length in milliseconds (0 if disabled)
+    public long getCrossfade() {
+        return crossfadeMillis;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: enables/disables gapless mode: the following track is read ahead and mixed on the same
+    //          voice right after the last sample of the playing one
+    public void setGapless(boolean gapless) {
+        this.gapless = gapless;
+        int index = currentIndex();
+        if (gapless && index != -1) {
+            queueGaplessAfter(index);
+        }
+    }
+
+    // EFFECTS: returns whether gapless mode is enabled
+    public boolean isGapless() {
+        return gapless;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: in gapless or crossfade mode, queues the next track (the first queued song, else the one after
+    //          index, wrapping around if the playlist loops) to follow it on the same voice, overlapping by the
+    //          crossfade length;
+    //          nothing is queued when single-song looping or at the end of a non-looping list
+    private void queueGaplessAfter(int index) {
+        if (!(gapless || crossfadeMillis > 0) || singleSongLooping || index < 0 || index >= files.size()) {
+            return;
+        }
+        int next = nextIndex(index, playlistLooping);
+        if (next == -1 || next == index) {
+            files.get(index).cancelNext();
+            followerId = -1;
+            return;
+        }
+        followerId = idOf(next);
+        files.get(index).queueNext(files.get(next), crossfadeMillis * 1000, transitionTo(idOf(next)));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: after songs were added or removed, queues the song that should now follow the current one in
+    //          gapless or crossfade mode, unless it is already queued (so the next file is only reopened when
+    //          the follower changed)
+    private void requeueFollower() {
+        int index = currentIndex();
+        if (!(gapless || crossfadeMillis > 0) || singleSongLooping || index == -1) {
+            return;
+        }
+        int next = nextIndex(index, playlistLooping);
+        if ((next == -1 || next == index ? -1 : idOf(next)) != followerId) {
+            queueGaplessAfter(index);
+        }
+    }
+
+    // EFFECTS: returns the callback (run on the player thread) for the track with given id taking over gaplessly
+    private Runnable transitionTo(int id) {
+        return () -> gaplessTransitioned(id);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: called on the player thread when the track with given id took over gaplessly (it is now the
+    //          current, playing song, unless it has been removed since); queues the one after it
+    private void gaplessTransitioned(int id) {
+        int index = indexOfId(id);
+        if (index == -1) {
+            return;
         }
-        isPaused = false;
+        becameCurrent(index, true);
+        state = STATE_PLAYING;
+        queueGaplessAfter(index);
+        publish(PlaylistEvent.CHANGED_STARTED);
     }
 
     // EFFECTS: gets status of single song looping
     public boolean isSingleSongLooping() {
-        return singleSongLooping;
+        return snapshot.isSingleSongLooping();
     }
 
     // EFFECTS: returns whether the songs instance is paused
     public boolean isPaused() {
-        return isPaused;
+        return snapshot.isPaused();
     }
 
     @Override
-    // EFFECTS: returns an iterator for the files listed
+    // EFFECTS: returns an iterator over the songs of the latest snapshot (which cannot remove them, and is not
+    //          affected by later changes)
     public Iterator<SoundFile> iterator() {
-        return files.iterator();
+        return snapshot.iterator();
     }
 }
@@ -0,0 +1,75 @@
+package model;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Comparator;
+
+// Represents the sort keys of a song, computed once when it is added to a playlist: collation keys of its path
+// and file name (so comparing them is a byte comparison), its length, its format and when it was added. Only
+// data read from the file's header is used, so sorting never opens an audio clip.
+final class SortKeys {
+    private final SoundFile file;
+    private final CollationKey path;
+    private final CollationKey name;
+    private final long micros;
+    private final String format; // file extension of the type
+    private final float sampleRate;
+    private final int added; // id of the song, which increases in the order songs are added
+
+    // EFFECTS: initializes the sort keys of file, the song with given id, comparing names with collator
+    SortKeys(SoundFile file, int id, Collator collator) {
+        this.file = file;
+        path = collator.getCollationKey(file.getString());
+        name = collator.getCollationKey(file.getPath().getFileName());
+        micros = file.length();
+        format = file.getType().getExtension();
+        sampleRate = file.getFormat().getSampleRate();
+        added = id;
+    }
+
+    // EFFECTS: returns the song of these keys
+    SoundFile getFile() {
+        return file;
+    }
+
+    // EFFECTS: returns the order given by keys (Songs.SORT_* keys, each optionally | Songs.SORT_DESCENDING), the
+    //          first key deciding first
+    //          throws IllegalArgumentException if there are no keys or one is not a Songs.SORT_* key
+    static Comparator<SortKeys> comparator(int... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("No sort keys");
+        }
+        Comparator<SortKeys> order = comparator(keys[0]);
+        for (int i = 1; i < keys.length; i++) {
+            order = order.thenComparing(comparator(keys[i]));
+        }
+        return order;
+    }
+
+    // EFFECTS: returns the order given by one key (a Songs.SORT_* key, optionally | Songs.SORT_DESCENDING)
+    //          throws IllegalArgumentException if it is not one
+    private static Comparator<SortKeys> comparator(int key) {
+        Comparator<SortKeys> order;
+        switch (key & ~Songs.SORT_DESCENDING) {
+            case Songs.SORT_PATH:
+                order = (a, b) -> a.path.compareTo(b.path);
+                break;
+            case Songs.SORT_NAME:
+                order = (a, b) -> a.name.compareTo(b.name);
+                break;
+            case Songs.SORT_DURATION:
+                order = (a, b) -> Long.compare(a.micros, b.micros);
+                break;
+            case Songs.SORT_FORMAT:
+                order = (a, b) -> a.format.equals(b.format) ? Float.compare(a.sampleRate, b.sampleRate)
+                        : a.format.compareTo(b.format);
+                break;
+            case Songs.SORT_ADDED:
+                order = (a, b) -> Integer.compare(a.added, b.added);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sort key: " + key);
+        }
+        return (key & Songs.SORT_DESCENDING) == 0 ? order : order.reversed();
+    }
+}
@@ -1,37 +1,197 @@
 package model;
 
+import model.audio.PlayerOwner;
+import model.audio.PlayerPool;
+import model.audio.StreamPlayer;
+
 import javax.sound.sampled.*;
 import java.io.File;
 import java.io.IOException;
 
 // represents a sound file (e.g. something that can be played)
-public class SoundFile {
-    private Clip soundClip; // sound clip from java API
-    private AudioInputStream wavStream; // audio input stream - i.e. file stream reads from the file
-    private File file;
-    private String internalString;
+public class SoundFile implements PlayerOwner {
+    private volatile StreamPlayer player; // the file's voice in the shared mixer; null until played or if evicted
+    private EntryPath path; // directory node and file name; the full path is built when needed
+    private AudioFormat format; // format from the file header
+    private long frameLength; // length in frames from the file header
+    private AudioFileFormat.Type type; // file type from the file header
+    private long byteLength; // size of the file in bytes
     private long timePosition = 0;
+    private long closedPosition = 0; // position when the player was last evicted
     private boolean isPaused = false;
     private boolean looping = false;
+    private float volume = 0;
+    private boolean muted = false;
+    private volatile Runnable onEnd; // run when playback reaches the end of the file
 
-    // EFFECTS: initializes internal string, and sound clips
+    // EFFECTS: initializes the entry path and reads the file header (format/length) only;
+    //          no voice is opened until the file is played or jumped in
     //          throws illegalArgumentException if file does not exist
     //          throws UnsupportedAudioFileException if the file is not supported or not an audio file
-    //          throws LineUnavailableException if Java cannot create an audio clip instance
-    public SoundFile(String c) throws IOException, UnsupportedAudioFileException, LineUnavailableException {
-        internalString = c;
-        file = new File(c);
+    //          throws IOException if the header cannot be read
+    public SoundFile(String c) throws IOException, UnsupportedAudioFileException {
+        path = EntryPath.of(c);
+        File file = path.toFile();
         if (!file.exists()) {
             throw new IllegalArgumentException("File does not exist: " + c);
         }
-        soundClip = AudioSystem.getClip();
-        wavStream = AudioSystem.getAudioInputStream(file);
-        soundClip.open(wavStream);
+        AudioFileFormat header = AudioSystem.getAudioFileFormat(file);
+        format = header.getFormat();
+        frameLength = header.getFrameLength() == AudioSystem.NOT_SPECIFIED ? 0 : header.getFrameLength();
+        type = header.getType();
+        byteLength = header.getByteLength() == AudioSystem.NOT_SPECIFIED ? file.length() : header.getByteLength();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: acquires the streaming player from the pool (reopening it if it was evicted),
+    //          applying volume/mute settings to a freshly opened player
+    //          returns false (and prints a warning) if the player could not be opened
+    private boolean ensureOpen() {
+        try {
+            StreamPlayer acquired = PlayerPool.getInstance().acquire(this, path.toFile());
+            if (acquired != player) {
+                acquired.setGain(volume);
+                acquired.setMuted(muted);
+                acquired.setEndListener(this::playerEnded);
+                acquired.seek(acquired.microsToFrames(closedPosition));
+                player = acquired;
+            }
+            player.setLooping(looping);
+            return true;
+        } catch (IOException | UnsupportedAudioFileException | LineUnavailableException
+                | IllegalArgumentException e) {
+            System.err.println("WARNING: could not open " + path + " for playback: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    // MODIFIES: this
+    // EFFECTS: forgets the evicted player, remembering where it was stopped
+    public void playerEvicted(StreamPlayer evicted) {
+        if (evicted == player) {
+            closedPosition = evicted.framesToMicros(evicted.getFramePosition());
+            player = null;
+        }
+    }
+
+    // EFFECTS: runs the end callback on the player thread if the player that ended still belongs to this file
+    //          then (i.e. after any gapless handover queued before it)
+    private void playerEnded(StreamPlayer ended) {
+        PlayerActor.getInstance().submit(this, () -> {
+            Runnable callback = onEnd;
+            if (ended == player && callback != null) {
+                callback.run();
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets a callback run (on the player thread) each time playback reaches the end of this file;
+    //          not run when the file is stopped, paused or moves on gaplessly. null removes it.
+    public void setOnEnd(Runnable onEnd) {
+        this.onEnd = onEnd;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the file and returns its playback resources to the pool
+    public void release() {
+        PlayerPool.getInstance().release(this);
+        player = null;
+        closedPosition = 0;
+    }
+
+    // MODIFIES: this, next
+    // EFFECTS: arranges for next to start on this file's voice right after this file's last sample;
+    //          onTransition is run (on the player thread) once next has taken over the voice
+    //          returns false if this file is not playing, or next cannot follow it gaplessly (e.g. other format)
+    public boolean queueNext(SoundFile next, Runnable onTransition) {
+        return queueNext(next, 0, onTransition);
+    }
+
+    // MODIFIES: this, next
+    // EFFECTS: like queueNext(next, onTransition), but the last fadeMicros of this file overlap the start of next
+    //          with an equal-power crossfade
+    public boolean queueNext(SoundFile next, long fadeMicros, Runnable onTransition) {
+        StreamPlayer current = player;
+        if (current == null || next == this) {
+            return false;
+        }
+        return current.queueNext(next.path.toFile(), current.microsToFrames(fadeMicros),
+            p -> PlayerActor.getInstance().submit(this, () -> {
+                handOver(next, p);
+                onTransition.run();
+            }));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops the file queued with queueNext, if any, so that this file stops at its end
+    public void cancelNext() {
+        StreamPlayer current = player;
+        if (current != null) {
+            current.cancelNext();
+        }
+    }
+
+    // MODIFIES: this, next
+    // EFFECTS: crossfades from the current position of this (playing) file into next over fadeMicros
+    //          returns false if this file is not playing or next cannot be mixed with it (e.g. other format)
+    public boolean crossfadeTo(SoundFile next, long fadeMicros, Runnable onTransition) {
+        StreamPlayer current = player;
+        if (fadeMicros <= 0 || current == null || !current.isRunning()) {
+            return false;
+        }
+        return queueNext(next, fadeMicros, onTransition) && current.fadeToQueued();
+    }
+
+    // MODIFIES: this, next
+    // EFFECTS: on the player thread - gives the player (now playing next's samples) to next; this file is left
+    //          stopped at the start
+    private void handOver(SoundFile next, StreamPlayer p) {
+        PlayerPool.getInstance().transfer(this, next);
+        next.adopt(p);
+        player = null;
+        closedPosition = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: takes over a running player that has just started streaming this file
+    private void adopt(StreamPlayer p) {
+        p.setGain(volume);
+        p.setMuted(muted);
+        p.setLooping(looping);
+        p.setEndListener(this::playerEnded);
+        timePosition = 0;
+        isPaused = false;
+        player = p;
+    }
+
+    // EFFECTS: returns the frames inserted between the previous track and this one at the last gapless
+    //          transition on this file's voice (0 means sample-accurate), or -1 if there was none
+    public long getLastTransitionGap() {
+        StreamPlayer current = player;
+        return current == null ? -1 : current.getLastTransitionGap();
+    }
+
+    // EFFECTS: returns the number of gapless transitions on this file's voice at which the output had run dry
+    public int getTransitionUnderruns() {
+        StreamPlayer current = player;
+        return current == null ? 0 : current.getTransitionUnderruns();
+    }
+
+    // EFFECTS: returns whether the playback resources of this file are open
+    public boolean isOpen() {
+        return player != null;
+    }
+
+    // EFFECTS: converts a frame count to microseconds using the header's format
+    private long framesToMicros(long frames) {
+        return (long) (((double) frames) / format.getFrameRate() * 1000000);
     }
 
     // EFFECTS: returns length of string as minutes:seconds
     public String stringLength() {
-        return convertMicrosecondsToTimeStamp(soundClip.getMicrosecondLength());
+        return convertMicrosecondsToTimeStamp(length());
     }
 
     public static final String convertMicrosecondsToTimeStamp(long micros) {
@@ -46,47 +206,52 @@ public class SoundFile {
 
     // EFFECTS: returns internal string
     public String getString() {
-        return internalString;
+        return path.toString();
     }
 
     // EFFECTS: returns a new file instance of the sound file in question
     public File getFile() {
-        return new File(internalString);
+        return path.toFile();
+    }
+
+    // EFFECTS: returns the path of the sound file, as a directory node and file name
+    public EntryPath getPath() {
+        return path;
     }
 
     // MODIFIES: this
-    // EFFECTS: plays the file
+    // EFFECTS: plays the file, opening its playback resources if needed
     public void play() {
-        if (!isPaused) {
-            soundClip.setFramePosition(0);
-        } else {
-            soundClip.setMicrosecondPosition(timePosition);
-        }
-        if (!looping) {
-            soundClip.loop(0);
-        } else {
-            soundClip.loop(Clip.LOOP_CONTINUOUSLY);
+        if (!ensureOpen()) {
+            return;
         }
+        long startFrame = isPaused ? player.microsToFrames(timePosition) : 0;
         timePosition = 0;
         isPaused = false;
-        soundClip.start();
+        player.start(startFrame);
     }
 
     // MODIFIES: this
-    // EFFECTS: jumps to specific position in soundFile
+    // EFFECTS: jumps to specific position in soundFile, opening its playback resources if needed
     public void jumpTo(long micros) {
-        soundClip.setMicrosecondPosition(micros);
+        if (ensureOpen()) {
+            player.seek(player.microsToFrames(micros));
+        }
     }
 
     // MODIFIES: this
     // EFFECTS: stops the file
     public void stop() {
-        soundClip.stop();
+        StreamPlayer current = player;
+        if (current != null) {
+            current.stop();
+        }
     }
 
     // EFFECTS: returns whether sound file is playing
     public boolean isPlaying() {
-        return soundClip.isRunning();
+        StreamPlayer current = player;
+        return current != null && current.isRunning();
     }
 
     // EFFECTS: returns whether sound file is paused
@@ -101,48 +266,49 @@ public class SoundFile {
 
     // EFFECTS: returns current volume
     public float getVolume() {
-        FloatControl volumeControl = (FloatControl) soundClip.getControl(FloatControl.Type.MASTER_GAIN);
-        return volumeControl.getValue();
+        return player == null ? volume : player.getGain();
     }
 
     // MODIFIES: this
     // EFFECTS: sets current volume to input volume
     public void setVolume(float v) {
-        FloatControl volumeControl = (FloatControl) soundClip.getControl(FloatControl.Type.MASTER_GAIN);
-        if (v >= volumeControl.getMaximum()) {
-            volumeControl.setValue(volumeControl.getMaximum());
-        } else if (v <= volumeControl.getMinimum()) {
-            volumeControl.setValue(volumeControl.getMinimum());
-        } else {
-            volumeControl.setValue(v);
+        volume = Math.max(getMinVolume(), Math.min(getMaxVolume(), v));
+        if (player != null) {
+            player.setGain(volume);
         }
     }
 
     // MODIFIES: this
     // EFFECTS: mutes the sound.
     public void mute() {
-        ((BooleanControl) soundClip.getControl(BooleanControl.Type.MUTE)).setValue(true);
+        muted = true;
+        if (player != null) {
+            player.setMuted(true);
+        }
     }
 
     // MODIFIES: this
     // EFFECTS: unmutes the sound.
     public void unmute() {
-        ((BooleanControl) soundClip.getControl(BooleanControl.Type.MUTE)).setValue(false);
+        muted = false;
+        if (player != null) {
+            player.setMuted(false);
+        }
     }
 
     // EFFECTS: determines whether sound clip is muted (for testing purposes)
     public boolean isMuted() {
-        return ((BooleanControl) soundClip.getControl(BooleanControl.Type.MUTE)).getValue();
+        return muted;
     }
 
     // EFFECTS: returns max volume allowed by Java
     public float getMaxVolume() {
-        return ((FloatControl) soundClip.getControl(FloatControl.Type.MASTER_GAIN)).getMaximum();
+        return player == null ? StreamPlayer.MAX_GAIN : player.getMaxGain();
     }
 
     // EFFECTS: returns max volume allowed by Java
     public float getMinVolume() {
-        return ((FloatControl) soundClip.getControl(FloatControl.Type.MASTER_GAIN)).getMinimum();
+        return player == null ? StreamPlayer.MIN_GAIN : player.getMinGain();
     }
 
     // MODIFIES: this
@@ -156,14 +322,29 @@ public class SoundFile {
     public void noLoop() {
         looping = false;
         // if it's running, make it not loop
-        if (soundClip.isRunning()) {
-            soundClip.loop(0);
+        if (player != null) {
+            player.setLooping(false);
         }
     }
 
-    // EFFECTS: returns how long the sound file is in microseconds
+    // EFFECTS: returns how long the sound file is in microseconds (read from the header)
     public long length() {
-        return soundClip.getMicrosecondLength();
+        return framesToMicros(frameLength);
+    }
+
+    // EFFECTS: returns the format of the sound file (read from the header)
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    // EFFECTS: returns the file type of the sound file (read from the header)
+    public AudioFileFormat.Type getType() {
+        return type;
+    }
+
+    // EFFECTS: returns the size of the sound file in bytes (read from the header)
+    public long getByteLength() {
+        return byteLength;
     }
 
     // EFFECTS: returns current position in time (when paused)
@@ -173,14 +354,15 @@ public class SoundFile {
 
     // EFFECTS: returns current time position (when not paused)
     public long getTimePosition() {
-        return soundClip.getMicrosecondPosition();
+        StreamPlayer current = player;
+        return current == null ? closedPosition : current.framesToMicros(current.getFramePosition());
     }
 
     // MODIFIES: this
     // EFFECTS: pauses the file - another call to play will start playback from previous position
     public void pause() {
-        timePosition = soundClip.getMicrosecondPosition();
+        stop();
+        timePosition = getTimePosition();
         isPaused = true;
-        soundClip.stop();
     }
 }
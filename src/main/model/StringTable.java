@@ -0,0 +1,121 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Represents a table of distinct strings, each stored once as UTF-8 bytes in one shared array and named by an
+// int id (in the order they were added). Strings are looked up through an open-addressing hash of ids, so the
+// table holds no String or boxed objects: 16 to 24 bytes per string on top of its characters.
+public class StringTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY * 32]; // the strings, back to back
+    private int byteCount = 0;
+    private int[] offsets = new int[INITIAL_CAPACITY + 1]; // string i is bytes[offsets[i], offsets[i + 1])
+    private int[] hashes = new int[INITIAL_CAPACITY]; // String.hashCode of each string
+    private int[] slots = new int[INITIAL_CAPACITY * 2]; // id + 1 of the string hashed there, 0 if empty
+    private int size = 0;
+
+    // MODIFIES: this
+    // EFFECTS: returns the id of s, adding it if it is not in the table yet
+    public int intern(String s) {
+        byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+        int hash = s.hashCode();
+        int slot = find(encoded, hash);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, bytes, byteCount, encoded.length);
+        byteCount += encoded.length;
+        hashes[size] = hash;
+        offsets[size + 1] = byteCount;
+        slots[slot] = size + 1;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    // EFFECTS: returns the id of s, -1 if it is not in the table
+    public int indexOf(String s) {
+        int slot = find(s.getBytes(StandardCharsets.UTF_8), s.hashCode());
+        return slots[slot] - 1;
+    }
+
+    // EFFECTS: returns the string of given id
+    //          throws IndexOutOfBoundsException if id is not in [0, size())
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Index: " + id + ", Size: " + size);
+        }
+        return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    // EFFECTS: returns the number of strings in the table
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns the number of bytes used by the characters of all strings
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    // EFFECTS: returns the slot holding the string with given bytes and hash, or the empty slot where it goes
+    private int find(byte[] encoded, int hash) {
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        while (slots[slot] != 0 && !matches(slots[slot] - 1, encoded, hash)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // EFFECTS: returns whether string id has given bytes and hash
+    private boolean matches(int id, byte[] encoded, int hash) {
+        int start = offsets[id];
+        if (hashes[id] != hash || offsets[id + 1] - start != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (bytes[start + i] != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the arrays (by half) so that one more string of given length fits
+    private void ensureCapacity(int length) {
+        if (byteCount + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(byteCount + length, bytes.length + (bytes.length >> 1)));
+        }
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size + (size >> 1));
+            offsets = Arrays.copyOf(offsets, hashes.length + 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: doubles the hash slots and puts every id back in them
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    // EFFECTS: returns hash with its high bits mixed into the low ones (which pick the slot)
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
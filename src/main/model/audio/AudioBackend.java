@@ -0,0 +1,51 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+// Represents where the SoftwareMixer's output goes: a sound device, a null sink or a file.
+// Behaves like a SourceDataLine: writes block while the backend's buffer is full, and the frame position
+// counts the frames that have actually been played (or consumed).
+public interface AudioBackend {
+    // MODIFIES: this
+    // EFFECTS: prepares the backend for audio in the given format with a buffer of about bufferBytes and
+    //          starts it; throws LineUnavailableException if the output cannot be opened
+    void open(AudioFormat format, int bufferBytes) throws LineUnavailableException;
+
+    // MODIFIES: this
+    // EFFECTS: queues len bytes of buf from off for output, blocking until there is room for them
+    void write(byte[] buf, int off, int len);
+
+    // MODIFIES: this
+    // EFFECTS: resumes consuming queued audio
+    void start();
+
+    // MODIFIES: this
+    // EFFECTS: pauses consuming queued audio (the queued audio is kept)
+    void stop();
+
+    // MODIFIES: this
+    // EFFECTS: blocks until all queued audio has been consumed
+    void drain();
+
+    // MODIFIES: this
+    // EFFECTS: discards all queued audio that has not been consumed yet
+    void flush();
+
+    // EFFECTS: returns the number of bytes that can be written without blocking
+    int available();
+
+    // EFFECTS: returns the size of the backend's buffer in bytes
+    int getBufferSize();
+
+    // EFFECTS: returns the number of frames consumed since the backend was opened
+    long getFramePosition();
+
+    // EFFECTS: returns whether the backend consumes audio at the format's frame rate (so it can run dry while
+    //          audio is late), rather than as soon as it is written
+    boolean isRealTime();
+
+    // MODIFIES: this
+    // EFFECTS: releases the output; the backend cannot be used afterwards
+    void close();
+}
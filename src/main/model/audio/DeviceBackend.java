@@ -0,0 +1,78 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+// Represents output to the default sound device through a single SourceDataLine
+public class DeviceBackend implements AudioBackend {
+    private SourceDataLine line;
+
+    // EFFECTS: returns whether the system has a sound device that can play the given format
+    public static boolean isAvailable(AudioFormat format) {
+        return AudioSystem.isLineSupported(new DataLine.Info(SourceDataLine.class, format));
+    }
+
+    @Override
+    public void open(AudioFormat format, int bufferBytes) throws LineUnavailableException {
+        try {
+            line = AudioSystem.getSourceDataLine(format);
+        } catch (IllegalArgumentException e) {
+            throw new LineUnavailableException("No sound device for " + format + ": " + e.getMessage());
+        }
+        line.open(format, bufferBytes);
+        line.start();
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        line.write(buf, off, len);
+    }
+
+    @Override
+    public void start() {
+        line.start();
+    }
+
+    @Override
+    public void stop() {
+        line.stop();
+    }
+
+    @Override
+    public void drain() {
+        line.drain();
+    }
+
+    @Override
+    public void flush() {
+        line.flush();
+    }
+
+    @Override
+    public int available() {
+        return line.available();
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return line.getBufferSize();
+    }
+
+    @Override
+    public long getFramePosition() {
+        return line.getLongFramePosition();
+    }
+
+    @Override
+    public void close() {
+        line.close();
+    }
+}
@@ -0,0 +1,185 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Represents a PCM source that memory-maps an uncompressed WAV or AIFF file and reads frames straight out of
+// the mapping. The RIFF/AIFF chunks are parsed here, and seeking is O(1): a frame index maps to a byte offset.
+public class MappedPcmSource implements PcmSource {
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private final AudioFormat format;
+    private final ByteBuffer data; // the sample data only; position() is the read position
+    private final int frameSize;
+    private final long frameLength;
+
+    // EFFECTS: initializes the source from a parsed format and a buffer covering the sample data
+    private MappedPcmSource(AudioFormat format, ByteBuffer data) {
+        this.format = format;
+        this.data = data;
+        this.frameSize = format.getFrameSize();
+        this.frameLength = data.remaining() / frameSize;
+    }
+
+    // EFFECTS: maps the file and parses it as uncompressed PCM WAV or AIFF,
+    //          returns null if the file is not such a file (callers should fall back to a StreamPcmSource)
+    //          throws IOException if the file cannot be read
+    public static MappedPcmSource open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < 12 || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            String riff = fourCc(map, 0);
+            String type = fourCc(map, 8);
+            if (riff.equals("RIFF") && type.equals("WAVE")) {
+                return parseWave(map);
+            } else if (riff.equals("FORM") && type.equals("AIFF")) {
+                return parseAiff(map);
+            }
+            return null;
+        }
+    }
+
+    // EFFECTS: returns the four-character chunk id at the given offset
+    private static String fourCc(ByteBuffer buf, int offset) {
+        char[] id = new char[4];
+        for (int i = 0; i < 4; i++) {
+            id[i] = (char) (buf.get(offset + i) & 0xFF);
+        }
+        return new String(id);
+    }
+
+    // EFFECTS: walks the RIFF chunks for "fmt " and "data", returns null if the data is not plain PCM
+    private static MappedPcmSource parseWave(MappedByteBuffer map) {
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        AudioFormat format = null;
+        int offset = 12;
+        while (offset + 8 <= map.limit()) {
+            String id = fourCc(map, offset);
+            long size = map.getInt(offset + 4) & 0xFFFFFFFFL;
+            int body = offset + 8;
+            if (id.equals("fmt ")) {
+                format = waveFormat(map, body);
+            } else if (id.equals("data") && format != null) {
+                return slice(map, format, body, size);
+            }
+            offset = (int) Math.min(Integer.MAX_VALUE, body + size + (size & 1));
+        }
+        return null;
+    }
+
+    // EFFECTS: reads a WAVE fmt chunk body, returns null unless it describes integer PCM
+    private static AudioFormat waveFormat(ByteBuffer map, int body) {
+        int tag = map.getShort(body) & 0xFFFF;
+        int channels = map.getShort(body + 2) & 0xFFFF;
+        int sampleRate = map.getInt(body + 4);
+        int blockAlign = map.getShort(body + 12) & 0xFFFF;
+        int bits = map.getShort(body + 14) & 0xFFFF;
+        if (tag == WAVE_FORMAT_EXTENSIBLE) {
+            tag = map.getShort(body + 24) & 0xFFFF; // first two bytes of the sub-format GUID
+        }
+        if (tag != WAVE_FORMAT_PCM || channels == 0 || blockAlign == 0 || bits == 0) {
+            return null;
+        }
+        AudioFormat.Encoding enc = bits <= 8 ? AudioFormat.Encoding.PCM_UNSIGNED : AudioFormat.Encoding.PCM_SIGNED;
+        return new AudioFormat(enc, sampleRate, bits, channels, blockAlign, sampleRate, false);
+    }
+
+    // EFFECTS: walks the AIFF chunks for "COMM" and "SSND", returns null if either is missing
+    private static MappedPcmSource parseAiff(MappedByteBuffer map) {
+        map.order(ByteOrder.BIG_ENDIAN);
+        AudioFormat format = null;
+        int offset = 12;
+        while (offset + 8 <= map.limit()) {
+            String id = fourCc(map, offset);
+            long size = map.getInt(offset + 4) & 0xFFFFFFFFL;
+            int body = offset + 8;
+            if (id.equals("COMM")) {
+                format = aiffFormat(map, body);
+            } else if (id.equals("SSND") && format != null) {
+                int dataOffset = map.getInt(body);
+                return slice(map, format, body + 8 + dataOffset, size - 8 - dataOffset);
+            }
+            offset = (int) Math.min(Integer.MAX_VALUE, body + size + (size & 1));
+        }
+        return null;
+    }
+
+    // EFFECTS: reads an AIFF COMM chunk body (samples are always signed big-endian)
+    private static AudioFormat aiffFormat(ByteBuffer map, int body) {
+        int channels = map.getShort(body) & 0xFFFF;
+        int bits = map.getShort(body + 6) & 0xFFFF;
+        float sampleRate = (float) extendedToDouble(map, body + 8);
+        if (channels == 0 || bits == 0) {
+            return null;
+        }
+        int frameSize = channels * ((bits + 7) / 8);
+        return new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sampleRate, bits, channels, frameSize,
+                sampleRate, true);
+    }
+
+    // EFFECTS: converts the 80-bit IEEE extended float at offset (used for AIFF sample rates) to a double
+    private static double extendedToDouble(ByteBuffer map, int offset) {
+        int exponent = map.getShort(offset) & 0x7FFF;
+        long mantissa = map.getLong(offset + 2);
+        double value = (mantissa >>> 1) * 2.0 + (mantissa & 1);
+        return value * Math.pow(2, exponent - 16383 - 63);
+    }
+
+    // EFFECTS: returns a source over size bytes of sample data starting at start, clamped to the file
+    private static MappedPcmSource slice(MappedByteBuffer map, AudioFormat format, int start, long size) {
+        if (format == null || start < 0 || start > map.limit()) {
+            return null;
+        }
+        ByteBuffer data = map.duplicate();
+        data.position(start);
+        data.limit((int) Math.min(map.limit(), start + size));
+        return new MappedPcmSource(format, data.slice());
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public long getFrameLength() {
+        return frameLength;
+    }
+
+    @Override
+    public long getFramePosition() {
+        return data.position() / frameSize;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) {
+        int n = Math.min(len, data.remaining());
+        n -= n % frameSize;
+        if (n <= 0) {
+            return -1;
+        }
+        data.get(buf, off, n);
+        return n;
+    }
+
+    @Override
+    public void seek(long frame) {
+        frame = Math.max(0, Math.min(frame, frameLength));
+        data.position((int) (frame * frameSize));
+    }
+
+    @Override
+    public void close() {
+        // the mapping is released when the buffer is garbage collected; the channel is already closed
+    }
+}
@@ -0,0 +1,119 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.concurrent.locks.LockSupport;
+
+// Represents a sink that discards the audio. In real-time mode it consumes frames at the format's frame rate
+// from a buffer, like a sound device would (so playback timing behaves as usual without a device);
+// otherwise it consumes everything as soon as it is written (for rendering as fast as possible).
+public class NullBackend implements AudioBackend {
+    private final boolean realTime;
+    private float frameRate;
+    private int frameSize;
+    private int bufferFrames;
+    private long written = 0; // frames written
+    private long position = 0; // frames consumed
+    private long lastNanos; // time up to which frames have been consumed
+    private boolean running = false;
+
+    // EFFECTS: initializes a null sink consuming in real time if realTime, unthrottled otherwise
+    public NullBackend(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    @Override
+    // EFFECTS: returns whether the sink consumes frames in real time
+    public boolean isRealTime() {
+        return realTime;
+    }
+
+    @Override
+    public synchronized void open(AudioFormat format, int bufferBytes) {
+        frameRate = format.getFrameRate();
+        frameSize = format.getFrameSize();
+        bufferFrames = Math.max(1, bufferBytes / frameSize);
+        start();
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        long frames = len / frameSize;
+        while (true) {
+            synchronized (this) {
+                if (!realTime || written + frames - consume() <= bufferFrames) {
+                    written += frames;
+                    consume();
+                    return;
+                }
+            }
+            LockSupport.parkNanos((long) (frames * 1e9 / frameRate / 4));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: advances the consumed position by the frames that have played since it was last advanced;
+    //          the position stalls (like a device that has run dry) when nothing is left, returns the position
+    private long consume() {
+        if (!realTime) {
+            position = written;
+        } else if (running) {
+            long now = System.nanoTime();
+            long elapsed = (long) ((now - lastNanos) * (double) frameRate / 1e9);
+            long advanced = Math.min(elapsed, written - position);
+            position += advanced;
+            lastNanos = advanced < elapsed ? now : lastNanos + (long) (advanced * 1e9 / frameRate);
+        }
+        return position;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            lastNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        consume();
+        running = false;
+    }
+
+    @Override
+    public void drain() {
+        while (true) {
+            synchronized (this) {
+                if (!running || consume() >= written) {
+                    return;
+                }
+            }
+            LockSupport.parkNanos(1000000);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        written = consume();
+    }
+
+    @Override
+    public synchronized int available() {
+        return (int) (bufferFrames - (written - consume())) * frameSize;
+    }
+
+    @Override
+    public synchronized int getBufferSize() {
+        return bufferFrames * frameSize;
+    }
+
+    @Override
+    public synchronized long getFramePosition() {
+        return consume();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+    }
+}
@@ -0,0 +1,62 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+// Represents the conversion between the raw bytes of one integer PCM format and float samples in [-1, 1].
+// Reading and writing samples does not allocate, so it is safe to use on the audio thread.
+public class PcmCodec {
+    private final int bytesPerSample;
+    private final boolean bigEndian;
+    private final boolean signed;
+    private final int shift; // bits to shift left/right to sign-extend a sample to 64 bits
+    private final double scale; // magnitude of the most negative sample
+
+    // EFFECTS: initializes a codec for the given integer PCM format
+    //          throws IllegalArgumentException if the format is not 8-32 bit integer PCM
+    public PcmCodec(AudioFormat format) {
+        AudioFormat.Encoding enc = format.getEncoding();
+        int bits = format.getSampleSizeInBits();
+        if (bits < 8 || bits > 32 || !(enc.equals(AudioFormat.Encoding.PCM_SIGNED)
+                || enc.equals(AudioFormat.Encoding.PCM_UNSIGNED))) {
+            throw new IllegalArgumentException("Not an integer PCM format: " + format);
+        }
+        bytesPerSample = (bits + 7) / 8;
+        bigEndian = format.isBigEndian();
+        signed = enc.equals(AudioFormat.Encoding.PCM_SIGNED);
+        shift = 64 - 8 * bytesPerSample;
+        scale = (double) (1L << (8 * bytesPerSample - 1));
+    }
+
+    // EFFECTS: returns the number of bytes per sample
+    public int getBytesPerSample() {
+        return bytesPerSample;
+    }
+
+    // EFFECTS: returns the sample stored at off in buf, scaled to [-1, 1]
+    public float read(byte[] buf, int off) {
+        long v = 0;
+        for (int i = 0; i < bytesPerSample; i++) {
+            int b = buf[off + (bigEndian ? i : bytesPerSample - 1 - i)] & 0xFF;
+            v = (v << 8) | b;
+        }
+        if (signed) {
+            v = (v << shift) >> shift;
+        } else {
+            v -= (long) scale;
+        }
+        return (float) (v / scale);
+    }
+
+    // MODIFIES: buf
+    // EFFECTS: stores sample (clipped to [-1, 1]) at off in buf
+    public void write(byte[] buf, int off, float sample) {
+        double clipped = Math.max(-1.0, Math.min(1.0, sample));
+        long v = Math.min((long) scale - 1, Math.round(clipped * scale));
+        if (!signed) {
+            v += (long) scale;
+        }
+        for (int i = 0; i < bytesPerSample; i++) {
+            buf[off + (bigEndian ? bytesPerSample - 1 - i : i)] = (byte) (v >> (8 * i));
+        }
+    }
+}
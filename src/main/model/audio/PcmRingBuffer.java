@@ -0,0 +1,105 @@
+package model.audio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents a fixed-size single-producer/single-consumer ring buffer of PCM bytes. One thread may write and
+// one other thread may read at the same time without locks; neither side allocates after construction.
+// The storage can live on or off the Java heap.
+public class PcmRingBuffer {
+    private final int capacity;
+    private final ByteBuffer writeView; // used only by the producer
+    private final ByteBuffer readView; // used only by the consumer
+    private final AtomicLong written = new AtomicLong(0); // total bytes ever written, only set by the producer
+    private final AtomicLong consumed = new AtomicLong(0); // total bytes ever read, only set by the consumer
+
+    // EFFECTS: initializes an empty ring buffer holding capacity bytes, allocated off-heap if offHeap
+    //          throws IllegalArgumentException if capacity is not positive
+    public PcmRingBuffer(int capacity, boolean offHeap) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        ByteBuffer storage = offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        writeView = storage.duplicate();
+        readView = storage.duplicate();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: producer side - copies as much of len bytes of src from off as fits, returns the bytes copied
+    public int write(byte[] src, int off, int len) {
+        long w = written.get();
+        int n = Math.min(len, capacity - (int) (w - consumed.get()));
+        if (n <= 0) {
+            return 0;
+        }
+        int pos = (int) (w % capacity);
+        int first = Math.min(n, capacity - pos);
+        writeView.position(pos);
+        writeView.put(src, off, first);
+        if (n > first) {
+            writeView.position(0);
+            writeView.put(src, off + first, n - first);
+        }
+        written.lazySet(w + n);
+        return n;
+    }
+
+    // MODIFIES: this, dst
+    // EFFECTS: consumer side - copies up to len buffered bytes into dst from off, returns the bytes copied
+    public int read(byte[] dst, int off, int len) {
+        long r = consumed.get();
+        int n = Math.min(len, (int) (written.get() - r));
+        if (n <= 0) {
+            return 0;
+        }
+        int pos = (int) (r % capacity);
+        int first = Math.min(n, capacity - pos);
+        readView.position(pos);
+        readView.get(dst, off, first);
+        if (n > first) {
+            readView.position(0);
+            readView.get(dst, off + first, n - first);
+        }
+        consumed.lazySet(r + n);
+        return n;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumer side - discards everything written before the given write position (as returned by
+    //          getWritePosition), returns the bytes discarded (0 if they have all been read already)
+    public int skipTo(long position) {
+        long r = consumed.get();
+        if (position <= r) {
+            return 0;
+        }
+        consumed.lazySet(position);
+        return (int) (position - r);
+    }
+
+    // EFFECTS: returns the total number of bytes ever written
+    public long getWritePosition() {
+        return written.get();
+    }
+
+    // EFFECTS: returns the total number of bytes ever read (or skipped)
+    public long getReadPosition() {
+        return consumed.get();
+    }
+
+    // EFFECTS: returns the number of bytes written but not yet read
+    public int getFill() {
+        long r = consumed.get(); // read first: written never falls behind it
+        return (int) (written.get() - r);
+    }
+
+    // EFFECTS: returns the number of bytes the buffer can hold
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // EFFECTS: returns whether the storage lives off the Java heap
+    public boolean isOffHeap() {
+        return writeView.isDirect();
+    }
+}
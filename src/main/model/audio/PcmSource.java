@@ -0,0 +1,31 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+
+// Represents a seekable source of PCM frames read from a sound file
+public interface PcmSource {
+    // EFFECTS: returns the PCM format of the frames this source produces
+    AudioFormat getFormat();
+
+    // EFFECTS: returns the length of the source in frames
+    long getFrameLength();
+
+    // EFFECTS: returns the index of the next frame that will be read
+    long getFramePosition();
+
+    // MODIFIES: this, buf
+    // EFFECTS: reads up to len bytes of whole frames into buf at off,
+    //          returns the number of bytes read or -1 at the end of the source
+    //          throws IOException if the underlying file cannot be read
+    int read(byte[] buf, int off, int len) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: moves the read position to the given frame (clamped to the source length)
+    //          throws IOException if the underlying file cannot be read
+    void seek(long frame) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: releases any resources held by the source
+    void close();
+}
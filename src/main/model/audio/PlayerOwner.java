@@ -0,0 +1,9 @@
+package model.audio;
+
+// Represents something that holds a StreamPlayer from the PlayerPool and must be told when it is evicted
+public interface PlayerOwner {
+    // MODIFIES: this
+    // EFFECTS: called by the pool after the owner's player has been closed to free memory;
+    //          the owner has to acquire a new player before playing again
+    void playerEvicted(StreamPlayer player);
+}
@@ -0,0 +1,147 @@
+package model.audio;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Represents a process-wide pool of open players (mixer voices), bounded by a byte budget.
+// Players that are not running are closed least-recently-played first once the budget is exceeded;
+// their owners reopen them on demand.
+public class PlayerPool {
+    public static final long DEFAULT_BUDGET = 8L * 1024 * 1024;
+    private static PlayerPool instance;
+
+    private final LinkedHashMap<PlayerOwner, StreamPlayer> players = new LinkedHashMap<>(16, 0.75f, true);
+    private long budget;
+    private long residentBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    // EFFECTS: initializes an empty pool with the given byte budget
+    public PlayerPool(long budget) {
+        this.budget = budget;
+    }
+
+    // EFFECTS: returns the process-wide pool, creating it with the default budget if needed
+    public static synchronized PlayerPool getInstance() {
+        if (instance == null) {
+            instance = new PlayerPool(DEFAULT_BUDGET);
+        }
+        return instance;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the owner's open player (a hit) or opens a new one for the file (a miss),
+    //          marks it most recently played, then evicts idle players until within budget
+    //          throws IOException if the file cannot be read
+    //          throws UnsupportedAudioFileException if the file is not a supported audio file
+    //          throws LineUnavailableException if Java cannot open the mixer's output line
+    public synchronized StreamPlayer acquire(PlayerOwner owner, File file)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        StreamPlayer player = players.get(owner);
+        if (player != null) {
+            hits++;
+            return player;
+        }
+        misses++;
+        player = new StreamPlayer(file);
+        players.put(owner, player);
+        residentBytes += player.getResidentBytes();
+        evictToBudget(owner);
+        return player;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the owner's player (if any) and removes it from the pool without counting an eviction
+    public synchronized void release(PlayerOwner owner) {
+        StreamPlayer player = players.remove(owner);
+        if (player != null) {
+            residentBytes -= player.getResidentBytes();
+            player.close();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: hands from's player over to to (used when a gapless transition moves a voice to the next track);
+    //          any player to already had is closed
+    public synchronized void transfer(PlayerOwner from, PlayerOwner to) {
+        StreamPlayer player = players.remove(from);
+        if (player == null) {
+            return;
+        }
+        StreamPlayer old = players.put(to, player);
+        if (old != null && old != player) {
+            residentBytes -= old.getResidentBytes();
+            old.close();
+        }
+    }
+
+    // MODIFIES: this, evicted owners
+    // EFFECTS: closes idle players, least recently played first, until resident bytes fit the budget;
+    //          never evicts a running player or the one belonging to keep
+    private void evictToBudget(PlayerOwner keep) {
+        Iterator<Map.Entry<PlayerOwner, StreamPlayer>> it = players.entrySet().iterator();
+        while (residentBytes > budget && it.hasNext()) {
+            Map.Entry<PlayerOwner, StreamPlayer> entry = it.next();
+            StreamPlayer player = entry.getValue();
+            if (entry.getKey() == keep || player.isRunning()) {
+                continue;
+            }
+            it.remove();
+            residentBytes -= player.getResidentBytes();
+            evictions++;
+            player.close();
+            entry.getKey().playerEvicted(player);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: changes the byte budget and evicts idle players if the pool is now over it
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+        evictToBudget(null);
+    }
+
+    // EFFECTS: returns the byte budget
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    // EFFECTS: returns the estimated bytes held by open players
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    // EFFECTS: returns the number of open players
+    public synchronized int getOpenCount() {
+        return players.size();
+    }
+
+    // EFFECTS: returns the number of acquires that found an open player
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    // EFFECTS: returns the number of acquires that had to open a player
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // EFFECTS: returns the number of players closed to stay within budget
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: resets the hit/miss/eviction counters
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package model.audio;
+
+import java.io.File;
+
+// Represents a track that has been opened and read ahead so that a player can switch to it without a gap,
+// optionally overlapping (crossfading) it with the end of the current track
+class QueuedTrack {
+    final File file;
+    final PcmSource source;
+    final TransitionListener listener;
+    final byte[] buffer; // read-ahead buffer, refilled from source while crossfading
+    int bufferBytes; // valid bytes in buffer
+    int bufferPos = 0; // next unconsumed byte in buffer
+    final long fadeFrames; // length of the overlap in frames, 0 for a plain gapless transition
+    volatile long fadeStart; // frame of the current track at which the overlap starts
+    long fadedFrames = 0; // frames of the overlap mixed so far
+
+    // EFFECTS: initializes the queued track with its source and its already-read first chunk
+    QueuedTrack(File file, PcmSource source, TransitionListener listener, byte[] buffer, int bufferBytes,
+                long fadeFrames, long fadeStart) {
+        this.file = file;
+        this.source = source;
+        this.listener = listener;
+        this.buffer = buffer;
+        this.bufferBytes = bufferBytes;
+        this.fadeFrames = fadeFrames;
+        this.fadeStart = fadeStart;
+    }
+}
@@ -0,0 +1,437 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+// Represents the software mixer: it owns one AudioBackend (normally the sound device, through a single line)
+// and mixes the samples of every running StreamPlayer (a voice) with the voice's gain and mute applied.
+// However many tracks are loaded or playing, at most one line is ever open.
+// Decoding and output run on separate threads: the decoder thread reads and mixes the voices into a
+// PcmRingBuffer, and the output thread drains that ring into the backend, so slow disk reads do not stall
+// device writes. Neither thread takes a lock or allocates per buffer: voices being added are queued on a lock-free
+// queue that the decoder thread drains, and only the decoder thread changes (and publishes) the list of voices.
+// Track-end events are delivered on a third, event thread, so listeners never hold up the audio.
+public class SoftwareMixer {
+    public static final AudioFormat MIX_FORMAT = new AudioFormat(44100, 16, 2, true, false);
+    public static final int CYCLE_FRAMES = 1024;
+    public static final int LINE_BUFFER_CYCLES = 4;
+    public static final int DEFAULT_RING_CYCLES = 4;
+    private static SoftwareMixer instance;
+
+    private final AudioFormat format;
+    private final float[] mix;
+    private final byte[] out; // one mixed cycle, written to the ring by the decoder thread
+    private final byte[] lineChunk; // one cycle read from the ring by the output thread
+    private final PcmCodec codec;
+    private final PcmRingBuffer ring;
+    private final AudioBackend backend;
+    private volatile StreamPlayer[] voices = new StreamPlayer[0]; // replaced (never modified) by the decoder
+    private final ConcurrentLinkedQueue<StreamPlayer> added = new ConcurrentLinkedQueue<>(); // not yet in voices
+    private volatile boolean opened = false;
+    private volatile boolean closed = false;
+    private volatile Thread decoder;
+    private volatile Thread output;
+    private volatile ExecutorService events;
+    private volatile boolean decoding = false; // whether the decoder thread is producing (voices are running)
+    private volatile boolean flushRequested = false;
+    private volatile long flushMark = -1; // ring write position before which queued output is to be dropped
+    private long handledMark = -1; // last flush mark handled by the output thread
+    private volatile long framesDropped = 0; // mixed frames flushed instead of played
+    private volatile long framesRendered = 0; // frames mixed into the ring since the backend was opened
+    private volatile long underruns = 0;
+
+    // EFFECTS: initializes a mixer producing the given integer PCM format into the backend, with a ring of
+    //          DEFAULT_RING_CYCLES cycles on the heap; the backend is not opened yet
+    //          throws IllegalArgumentException if the format is not integer PCM
+    public SoftwareMixer(AudioFormat format, AudioBackend backend) {
+        this(format, DEFAULT_RING_CYCLES, false, backend);
+    }
+
+    // EFFECTS: initializes a mixer producing the given integer PCM format into the backend, whose ring between
+    //          the decoder and output threads holds ringCycles mixing cycles, allocated off-heap if offHeap;
+    //          the backend is not opened yet
+    //          throws IllegalArgumentException if the format is not integer PCM or ringCycles is not positive
+    public SoftwareMixer(AudioFormat format, int ringCycles, boolean offHeap, AudioBackend backend) {
+        this.format = format;
+        this.backend = backend;
+        mix = new float[CYCLE_FRAMES * format.getChannels()];
+        out = new byte[CYCLE_FRAMES * format.getFrameSize()];
+        lineChunk = new byte[out.length];
+        codec = new PcmCodec(format);
+        ring = new PcmRingBuffer(out.length * ringCycles, offHeap);
+    }
+
+    // EFFECTS: returns the process-wide mixer, creating it with the default format if needed; it plays on the
+    //          sound device, or (with a warning) into a real-time null sink if the system has no sound device
+    public static synchronized SoftwareMixer getInstance() {
+        if (instance == null) {
+            AudioBackend backend = new DeviceBackend();
+            if (!DeviceBackend.isAvailable(MIX_FORMAT)) {
+                System.err.println("WARNING: no sound device available, audio is discarded");
+                backend = new NullBackend(true);
+            }
+            instance = new SoftwareMixer(MIX_FORMAT, backend);
+        }
+        return instance;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes mixer the process-wide mixer (e.g. one writing to a NullBackend or WavFileBackend);
+    //          players opened from now on are mixed by it, players already open stay on the previous one
+    public static synchronized void setInstance(SoftwareMixer mixer) {
+        instance = mixer;
+    }
+
+    // EFFECTS: returns the format voices are mixed in (all voice sources have its sample rate)
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    // EFFECTS: returns the backend the mix is written to
+    public AudioBackend getBackend() {
+        return backend;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the backend and starts the decoder and output threads, unless already done
+    //          throws LineUnavailableException if the backend cannot be opened or the mixer has been closed
+    public synchronized void open() throws LineUnavailableException {
+        if (closed) {
+            throw new LineUnavailableException("Mixer has been closed");
+        }
+        if (opened) {
+            return;
+        }
+        backend.open(format, out.length * LINE_BUFFER_CYCLES);
+        opened = true;
+        decoder = new Thread(this::decode, "SoftwareMixer-decoder");
+        output = new Thread(this::output, "SoftwareMixer-output");
+        decoder.setDaemon(true);
+        output.setDaemon(true);
+        decoder.start();
+        output.start();
+        events = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "SoftwareMixer-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the decoder, output and event threads and closes the backend; output still queued in the
+    //          ring is dropped. Voices of this mixer cannot be played any more.
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (opened) {
+            LockSupport.unpark(decoder);
+            LockSupport.unpark(output);
+            join(decoder);
+            join(output);
+            events.shutdown();
+            backend.close();
+        }
+    }
+
+    // EFFECTS: waits for the given thread to finish
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // EFFECTS: runs the event on the event thread, after any events posted before it
+    void post(Runnable event) {
+        if (!closed) {
+            events.execute(event);
+        }
+    }
+
+    // EFFECTS: returns whether the backend is open (and the mixer not closed)
+    public boolean isOpen() {
+        return opened && !closed;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues a voice to be added to the mix from the next cycle (no effect then if it is already mixed)
+    //          and wakes the decoder thread; if no other voice is running, the tail of stopped voices still
+    //          queued for output is dropped
+    void add(StreamPlayer voice) {
+        if (!othersRunning(voice)) {
+            flushRequested = true; // set before queueing the voice, so its first cycle is not dropped
+        }
+        added.add(voice);
+        LockSupport.unpark(decoder);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: called when a voice is stopped - if no voice is running any more, its queued output is dropped
+    //          (like flushing a line), so stopping is heard immediately
+    void stopped(StreamPlayer voice) {
+        if (!othersRunning(voice)) {
+            flushRequested = true;
+            LockSupport.unpark(decoder);
+        }
+    }
+
+    // EFFECTS: returns whether any mixed voice other than the given one is running
+    private boolean othersRunning(StreamPlayer voice) {
+        for (StreamPlayer v : voices) {
+            if (v != voice && v.isRunning()) {
+                return true;
+            }
+        }
+        for (StreamPlayer v : added) {
+            if (v != voice && v.isRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: decoder side of a flush request - marks everything in the ring so far as to be dropped
+    private void markFlush() {
+        if (flushRequested) {
+            flushRequested = false;
+            flushMark = ring.getWritePosition();
+            LockSupport.unpark(output);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: output side of a flush request - drops the ring up to the flush mark and flushes the line,
+    //          unless output has already moved past the mark; returns true if anything was flushed
+    private boolean applyFlush() {
+        long mark = flushMark;
+        if (mark == handledMark) {
+            return false;
+        }
+        handledMark = mark;
+        if (ring.getReadPosition() > mark) {
+            return false;
+        }
+        long dropped = ring.skipTo(mark) + (backend.getBufferSize() - backend.available());
+        backend.flush();
+        framesDropped += dropped / format.getFrameSize();
+        LockSupport.unpark(decoder);
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: decoder side of add - moves the queued voices that are not mixed yet into the list of voices, one
+    //          at a time, publishing the list before taking each voice off the queue (so othersRunning always sees
+    //          it); returns the published voices right away if nothing is queued
+    private StreamPlayer[] drainAdded() {
+        StreamPlayer[] current = voices;
+        if (added.isEmpty()) {
+            return current;
+        }
+        StreamPlayer voice;
+        while ((voice = added.peek()) != null) {
+            if (indexOf(current, voice) < 0) {
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = voice;
+                voices = current;
+            }
+            added.poll();
+        }
+        return current;
+    }
+
+    // EFFECTS: returns the index of voice in list, or -1 if it is not in it
+    private static int indexOf(StreamPlayer[] list, StreamPlayer voice) {
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] == voice) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: decoder side of retiring voices - retires the ended voices, then removes the voices that are not
+    //          running from the list of voices (a voice restarted after that is queued by add again)
+    private void retireStopped(StreamPlayer[] active, long played) {
+        int stopped = 0;
+        for (StreamPlayer voice : active) {
+            stopped += voice.retire(played) ? 1 : 0;
+        }
+        if (stopped == 0) {
+            return;
+        }
+        StreamPlayer[] remaining = new StreamPlayer[active.length];
+        int running = 0;
+        for (StreamPlayer voice : active) {
+            if (voice.isRunning()) {
+                remaining[running++] = voice;
+            }
+        }
+        voices = Arrays.copyOf(remaining, running);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: body of the decoder thread - mixes one cycle of every voice at a time into the ring, waiting while
+    //          the ring is full; sleeps while no voice is running
+    private void decode() {
+        while (!closed) {
+            StreamPlayer[] active = awaitVoices();
+            decoding = active.length > 0;
+            markFlush();
+            mixCycle(active);
+            int written = 0;
+            while (written < out.length && !closed) {
+                written += ring.write(out, written, out.length - written);
+                LockSupport.unpark(output);
+                if (written < out.length) {
+                    LockSupport.park(this);
+                }
+            }
+            framesRendered += CYCLE_FRAMES;
+            retireStopped(active, getFramesPlayed());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: renders one cycle of the given voices into mix and encodes it into out
+    private void mixCycle(StreamPlayer[] active) {
+        Arrays.fill(mix, 0);
+        for (StreamPlayer voice : active) {
+            voice.render(mix, CYCLE_FRAMES);
+        }
+        int bytesPerSample = codec.getBytesPerSample();
+        for (int i = 0; i < mix.length; i++) {
+            codec.write(out, i * bytesPerSample, mix[i]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: body of the output thread - drains the ring into the backend, counting an underrun whenever both
+    //          the ring and the backend run dry while the decoder is producing (not counting the refill after a
+    //          flush or idle); lets the backend play out and stops it while idle
+    private void output() {
+        boolean empty = true;
+        while (!closed) {
+            if (applyFlush()) {
+                empty = true;
+            }
+            int read = ring.read(lineChunk, 0, lineChunk.length);
+            if (read > 0) {
+                LockSupport.unpark(decoder);
+                backend.write(lineChunk, 0, read);
+                empty = false;
+            } else if (decoding) {
+                if (!empty && isStarved()) {
+                    underruns++;
+                }
+                empty = true;
+                LockSupport.park(this);
+            } else {
+                idle();
+                empty = true;
+            }
+        }
+    }
+
+    // EFFECTS: lets the backend play out and stops it until the decoder produces again
+    private void idle() {
+        backend.drain();
+        backend.stop();
+        while (!decoding && ring.getFill() == 0 && flushMark == handledMark && !closed) {
+            LockSupport.park(this);
+        }
+        backend.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the voices (with the queued ones added), waiting (and letting the output thread go idle)
+    //          if there are none; returns no voices once the mixer is closed
+    private StreamPlayer[] awaitVoices() {
+        StreamPlayer[] active = drainAdded();
+        if (active.length == 0) {
+            markFlush();
+            decoding = false;
+            LockSupport.unpark(output);
+            while (active.length == 0 && !closed) {
+                LockSupport.park(this);
+                active = drainAdded();
+            }
+        }
+        return active;
+    }
+
+    // EFFECTS: returns whether everything written to the backend has already been played (i.e. it has run dry);
+    //          a backend that is not real-time only waits for the mixer, so it is never starved
+    boolean isStarved() {
+        return opened && backend.isRealTime() && backend.available() >= backend.getBufferSize();
+    }
+
+    // EFFECTS: returns the frames mixed into the ring so far
+    public long getFramesRendered() {
+        return framesRendered;
+    }
+
+    // EFFECTS: returns the frames of the mix that are behind the output so far: played by the backend, or dropped
+    public long getFramesPlayed() {
+        return opened ? backend.getFramePosition() + framesDropped : 0;
+    }
+
+    // EFFECTS: returns how many frames have been mixed but not yet played (ring plus backend: the output latency)
+    public long getLatencyFrames() {
+        return Math.max(0, framesRendered - getFramesPlayed());
+    }
+
+    // EFFECTS: returns the number of voices currently being mixed, or queued to be mixed from the next cycle
+    public int getVoiceCount() {
+        StreamPlayer[] current = voices;
+        int count = current.length;
+        int position = 0;
+        for (StreamPlayer voice : added) {
+            if (indexOf(current, voice) < 0 && !queuedBefore(voice, position)) {
+                count++;
+            }
+            position++;
+        }
+        return count;
+    }
+
+    // EFFECTS: returns whether voice is among the first count voices of the add queue (queued more than once)
+    private boolean queuedBefore(StreamPlayer voice, int count) {
+        int position = 0;
+        for (StreamPlayer v : added) {
+            if (position++ >= count) {
+                return false;
+            }
+            if (v == voice) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // EFFECTS: returns how many times the output ran dry (empty ring and backend) while the decoder was producing
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    // EFFECTS: returns the frames currently buffered in the ring between the decoder and output threads
+    public int getRingFillFrames() {
+        return ring.getFill() / format.getFrameSize();
+    }
+
+    // EFFECTS: returns the number of frames the ring can hold
+    public int getRingCapacityFrames() {
+        return ring.getCapacity() / format.getFrameSize();
+    }
+}
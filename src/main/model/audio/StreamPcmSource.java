@@ -0,0 +1,125 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+
+// Represents a PCM source decoded through an AudioInputStream; used for files that cannot be memory-mapped
+// (e.g. compressed encodings) or that have to be resampled. Seeking reopens the stream and skips forward.
+public class StreamPcmSource implements PcmSource {
+    private final File file;
+    private final float sampleRate; // rate to resample to, or AudioSystem.NOT_SPECIFIED to keep the file's
+    private final AudioFormat format;
+    private final long frameLength;
+    private final int frameSize;
+    private AudioInputStream stream;
+    private long position = 0;
+
+    // EFFECTS: opens the file as a decoded PCM stream
+    //          throws IOException if the file cannot be read
+    //          throws UnsupportedAudioFileException if the file is not a supported audio file
+    public StreamPcmSource(File file) throws IOException, UnsupportedAudioFileException {
+        this(file, AudioSystem.NOT_SPECIFIED);
+    }
+
+    // EFFECTS: opens the file as a decoded PCM stream resampled to the given rate
+    //          throws IOException if the file cannot be read
+    //          throws UnsupportedAudioFileException if the file is not a supported audio file
+    //          or cannot be converted to that rate
+    public StreamPcmSource(File file, float sampleRate) throws IOException, UnsupportedAudioFileException {
+        this.file = file;
+        this.sampleRate = sampleRate;
+        AudioInputStream raw = AudioSystem.getAudioInputStream(file);
+        float rawRate = raw.getFormat().getFrameRate();
+        long rawLength = raw.getFrameLength() == AudioSystem.NOT_SPECIFIED ? 0 : raw.getFrameLength();
+        stream = openStream(raw, sampleRate);
+        format = stream.getFormat();
+        frameSize = format.getFrameSize();
+        frameLength = stream.getFrameLength() != AudioSystem.NOT_SPECIFIED ? stream.getFrameLength()
+                : (long) (rawLength * (double) format.getFrameRate() / rawRate);
+    }
+
+    // EFFECTS: returns raw as a PCM stream, decoding it if it is compressed (e.g. u-law) and resampling it if
+    //          sampleRate is specified and differs from the stream's rate
+    //          throws UnsupportedAudioFileException if Java has no converter for it
+    private static AudioInputStream openStream(AudioInputStream raw, float sampleRate)
+            throws UnsupportedAudioFileException {
+        AudioFormat base = raw.getFormat();
+        AudioFormat.Encoding enc = base.getEncoding();
+        boolean pcm = enc.equals(AudioFormat.Encoding.PCM_SIGNED) || enc.equals(AudioFormat.Encoding.PCM_UNSIGNED);
+        float rate = sampleRate == AudioSystem.NOT_SPECIFIED ? base.getSampleRate() : sampleRate;
+        if (pcm && rate == base.getSampleRate()) {
+            return raw;
+        }
+        AudioFormat decoded = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, rate, 16,
+                base.getChannels(), base.getChannels() * 2, rate, false);
+        try {
+            return AudioSystem.getAudioInputStream(decoded, raw);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedAudioFileException("Cannot convert " + base + " to " + decoded);
+        }
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public long getFrameLength() {
+        return frameLength;
+    }
+
+    @Override
+    public long getFramePosition() {
+        return position;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        len -= len % frameSize;
+        int total = 0;
+        while (total < len) {
+            int read = stream.read(buf, off + total, len - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        total -= total % frameSize;
+        position += total / frameSize;
+        return total == 0 ? -1 : total;
+    }
+
+    @Override
+    public void seek(long frame) throws IOException {
+        frame = Math.max(0, Math.min(frame, frameLength));
+        stream.close();
+        try {
+            stream = openStream(AudioSystem.getAudioInputStream(file), sampleRate);
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("File changed since it was opened: " + file, e);
+        }
+        long toSkip = frame * frameSize;
+        while (toSkip > 0) {
+            long skipped = stream.skip(toSkip);
+            if (skipped <= 0) {
+                break;
+            }
+            toSkip -= skipped;
+        }
+        position = frame - toSkip / frameSize;
+    }
+
+    @Override
+    public void close() {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // nothing to do - the stream is being discarded anyway
+        }
+    }
+}
@@ -0,0 +1,534 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Represents one voice of the SoftwareMixer: a sound file streamed from a PcmSource in small chunks, which the
+// mixer thread pulls and adds to the shared output line with this voice's gain and mute applied.
+// Only a chunk (plus a queued track's read-ahead) is ever held in memory, and no line is opened per voice.
+// Neither the callers nor the mixer thread lock the voice: whether it runs is one atomic state that every start,
+// stop and seek moves to a new generation, so the mixer retires a voice only if nothing changed it meanwhile.
+// A queued track is claimed atomically by the side that drops or switches to it, and a source the mixer thread
+// may be reading is only closed once it has left render.
+public class StreamPlayer {
+    public static final float MAX_GAIN = (float) 6.0206;
+    public static final float MIN_GAIN = (float) -80;
+    private static final long NO_SEEK = -1;
+    private static final long NOT_ENDED = -1;
+
+    private final SoftwareMixer mixer;
+    private volatile File file;
+    private final AudioFormat format;
+    private volatile long frameLength;
+    private final int frameSize;
+    private final int channels;
+    private final int mixChannels;
+    private final byte[] chunk;
+    private final PcmCodec codec;
+    private volatile PcmSource source; // only read by the mixer thread (or while the voice is not running)
+    // track to continue with (gaplessly) when the source ends; whichever thread takes it out owns it
+    private final AtomicReference<QueuedTrack> queued = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<PcmSource> closing = new ConcurrentLinkedQueue<>(); // see closeLater
+    private volatile boolean rendering = false; // whether the mixer thread is in render (and may read a source)
+    private volatile TrackEndListener endListener;
+    private byte[] carry; // rest of the queued track's read-ahead, mixed before reading its source
+    private int carryPos = 0;
+    private int carryBytes = 0;
+    private final AtomicLong runState = new AtomicLong(0); // odd while running; each change adds to it
+    private volatile boolean looping = false;
+    private final AtomicLong pendingSeek = new AtomicLong(NO_SEEK);
+    private volatile long readFrame = 0; // frame index of the next frame to be mixed
+    private volatile long seekBase = 0; // frame the voice was last started or sought to
+    private volatile long endFrame = NOT_ENDED; // mixer frame at which the last frame was mixed
+    private long renderPos = 0; // mixer frame the next mixed frame of this voice goes to
+    private volatile long stoppedFrame = 0;
+    private volatile float gainDb = 0;
+    private volatile float gain = 1; // gainDb as a linear factor
+    private volatile boolean muted = false;
+    private long switchedAt = NOT_ENDED; // mixer frame of the last gapless switch, until the next frame is mixed
+    private volatile long lastTransitionGap = -1; // frames mixed between two gapless tracks, -1 if none yet
+    private volatile int transitionUnderruns = 0; // gapless transitions at which the line had already run dry
+
+    // EFFECTS: opens the shared mixer's output (if it is not open yet) and opens the file as a PCM source
+    //          at the mixer's sample rate
+    //          throws IOException if the file cannot be read
+    //          throws UnsupportedAudioFileException if the file is not a supported audio file
+    //          throws LineUnavailableException if Java cannot open the mixer's output line
+    public StreamPlayer(File file) throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        this(file, SoftwareMixer.getInstance());
+    }
+
+    // EFFECTS: opens the given mixer's output (if it is not open yet) and opens the file as a PCM source
+    //          at the mixer's sample rate
+    //          throws IOException if the file cannot be read
+    //          throws UnsupportedAudioFileException if the file is not a supported audio file
+    //          throws LineUnavailableException if the mixer's backend cannot be opened
+    public StreamPlayer(File file, SoftwareMixer mixer)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        this.file = file;
+        this.mixer = mixer;
+        mixer.open();
+        source = openSource(file, mixer.getFormat().getSampleRate());
+        format = source.getFormat();
+        frameSize = format.getFrameSize();
+        channels = format.getChannels();
+        mixChannels = mixer.getFormat().getChannels();
+        frameLength = source.getFrameLength();
+        chunk = new byte[SoftwareMixer.CYCLE_FRAMES * frameSize];
+        codec = new PcmCodec(format);
+    }
+
+    // EFFECTS: memory-maps uncompressed WAV/AIFF files at the given sample rate, and decodes (and resamples)
+    //          anything else through an AudioInputStream
+    //          throws IOException if the file cannot be read
+    //          throws UnsupportedAudioFileException if the file is not a supported audio file
+    public static PcmSource openSource(File file, float sampleRate) throws IOException, UnsupportedAudioFileException {
+        PcmSource mapped = MappedPcmSource.open(file);
+        if (mapped != null && mapped.getFormat().getSampleRate() == sampleRate) {
+            return mapped;
+        }
+        if (mapped != null) {
+            mapped.close();
+        }
+        return new StreamPcmSource(file, sampleRate);
+    }
+
+    // EFFECTS: returns the PCM format of the source
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    // EFFECTS: returns the length of the source in frames
+    public long getFrameLength() {
+        return frameLength;
+    }
+
+    // EFFECTS: returns the length of the source in microseconds
+    public long getMicrosecondLength() {
+        return framesToMicros(frameLength);
+    }
+
+    // EFFECTS: returns an estimate of the bytes this voice keeps resident (its read chunks)
+    public long getResidentBytes() {
+        return chunk.length * 2L; // read chunk plus a queued track's read-ahead
+    }
+
+    // EFFECTS: converts a frame count to microseconds in this source's format
+    public long framesToMicros(long frames) {
+        return (long) (((double) frames) / format.getFrameRate() * 1000000);
+    }
+
+    // EFFECTS: converts microseconds to a frame index in this source's format
+    public long microsToFrames(long micros) {
+        return (long) (micros / 1000000.0 * format.getFrameRate());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts mixing from the given frame, dropping any queued track
+    public void start(long frame) {
+        cancelNext();
+        pendingSeek.set(Math.max(0, Math.min(frame, frameLength)));
+        runState.updateAndGet(s -> isRunning(s) ? s + 2 : s + 1);
+        mixer.add(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops mixing and remembers the position that was audible when stopped
+    public void stop() {
+        long state;
+        do {
+            state = runState.get();
+            if (!isRunning(state)) {
+                return;
+            }
+            stoppedFrame = getFramePosition();
+        } while (!runState.compareAndSet(state, state + 1));
+        pendingSeek.set(NO_SEEK);
+        cancelNext();
+        mixer.stopped(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the given file and reads its first chunk ahead, so that when the current source ends
+    //          its first sample is mixed right after the current source's last sample;
+    //          listener is run on the mixer thread after the switch. Replaces any previously queued track.
+    //          returns false if the voice is not running, or the file cannot be opened or has a different format
+    public boolean queueNext(File nextFile, TransitionListener listener) {
+        return queueNext(nextFile, 0, listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: like queueNext(nextFile, listener), but the last fadeFrames frames of the current source are
+    //          mixed with the first fadeFrames frames of the next one using an equal-power crossfade
+    public boolean queueNext(File nextFile, long fadeFrames, TransitionListener listener) {
+        if (!isRunning()) {
+            return false;
+        }
+        try {
+            PcmSource next = openSource(nextFile, format.getSampleRate());
+            if (!next.getFormat().matches(format)) {
+                next.close();
+                return false;
+            }
+            byte[] first = new byte[chunk.length];
+            int read = Math.max(0, next.read(first, 0, first.length));
+            long fadeStart = Math.max(0, frameLength - fadeFrames);
+            QueuedTrack q = new QueuedTrack(nextFile, next, listener, first, read, Math.max(0, fadeFrames), fadeStart);
+            QueuedTrack replaced = queued.getAndSet(q);
+            if (replaced != null) {
+                closeLater(replaced.source);
+            }
+            return true;
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.err.println("WARNING: could not queue " + nextFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts the crossfade into the queued track from the current read position instead of waiting
+    //          for the end of the current track; returns false if no crossfading track is queued
+    public boolean fadeToQueued() {
+        QueuedTrack q = queued.get();
+        if (q == null || q.fadeFrames == 0) {
+            return false;
+        }
+        q.fadeStart = readFrame;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops the queued track, if any (unless the mixer thread has just switched to it), and releases its
+    //          source
+    public void cancelNext() {
+        QueuedTrack q = queued.getAndSet(null);
+        if (q != null) {
+            closeLater(q.source);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes a source that is no longer used - right away if the mixer thread is not in render, else
+    //          once it leaves render (it may still be reading a track it took out of queued before this)
+    private void closeLater(PcmSource dropped) {
+        closing.add(dropped);
+        if (!rendering) {
+            closeDropped();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the sources passed to closeLater (each exactly once, whichever thread gets it)
+    private void closeDropped() {
+        for (PcmSource dropped = closing.poll(); dropped != null; dropped = closing.poll()) {
+            dropped.close();
+        }
+    }
+
+    // EFFECTS: returns whether a track is queued to follow the current one
+    public boolean hasNext() {
+        return queued.get() != null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the play position to the given frame; takes effect from the next mixing cycle if running
+    public void seek(long frame) {
+        frame = Math.max(0, Math.min(frame, frameLength));
+        long state;
+        do {
+            state = runState.get();
+            if (!isRunning(state)) {
+                stoppedFrame = frame;
+                return;
+            }
+            pendingSeek.set(frame);
+        } while (!runState.compareAndSet(state, state + 2));
+    }
+
+    // MODIFIES: this, mix
+    // EFFECTS: called by the mixer thread - adds the next frames frames of this voice to mix, continuing with the
+    //          queued track or from the start (if looping) when the source ends;
+    //          marks the voice as ended once the source (and any queued track) is exhausted
+    void render(float[] mix, int frames) {
+        rendering = true; // before reading queued or the source, see closeLater
+        long seekTo = pendingSeek.getAndSet(NO_SEEK);
+        if (seekTo != NO_SEEK && isRunning()) {
+            seekSource(seekTo);
+        }
+        renderPos = mixer.getFramesRendered();
+        int done = 0;
+        while (done < frames && isRunning() && endFrame == NOT_ENDED) {
+            int read = readChunk(Math.min(frames - done, chunk.length / frameSize) * frameSize);
+            if (read > 0) {
+                mixChunk(mix, done, read);
+                done += read / frameSize;
+            } else if (looping && frameLength > 0) {
+                seekSource(0);
+            } else if (!switchTo(queued.getAndSet(null))) {
+                endFrame = renderPos;
+            }
+        }
+        rendering = false;
+        if (!closing.isEmpty()) {
+            closeDropped();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: called by the mixer thread after each cycle with the frames the line has played - marks an ended
+    //          voice as stopped once its last frame has been heard and posts the end-of-track event, unless it
+    //          was started, stopped or sought in the meantime; returns true if the voice is not running
+    boolean retire(long played) {
+        long state = runState.get();
+        if (isRunning(state) && endFrame != NOT_ENDED && played >= endFrame && pendingSeek.get() == NO_SEEK) {
+            stoppedFrame = frameLength;
+            if (runState.compareAndSet(state, state + 1)) {
+                TrackEndListener listener = endListener;
+                if (listener != null) {
+                    mixer.post(() -> listener.trackEnded(this));
+                }
+            }
+        }
+        return !isRunning();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the listener told (on the mixer's event thread) when the track has been played to the end;
+    //          null removes it. Stopping the player does not count as an end.
+    public void setEndListener(TrackEndListener listener) {
+        endListener = listener;
+    }
+
+    // MODIFIES: this, mix
+    // EFFECTS: adds the read chunk to mix at the given frame offset, first mixing in the queued track if a
+    //          crossfade has begun; switches to the queued track once the crossfade is complete
+    private void mixChunk(float[] mix, int offset, int read) {
+        int frames = read / frameSize;
+        QueuedTrack q = queued.get();
+        boolean fading = q != null && q.fadeFrames > 0 && mixQueued(q, frames);
+        if (switchedAt != NOT_ENDED) {
+            lastTransitionGap = renderPos - switchedAt;
+            switchedAt = NOT_ENDED;
+        }
+        addToMix(mix, offset, frames);
+        readFrame += frames;
+        renderPos += frames;
+        if (fading && q.fadedFrames >= q.fadeFrames && queued.compareAndSet(q, null)) {
+            switchTo(q);
+        }
+    }
+
+    // MODIFIES: mix
+    // EFFECTS: adds frames frames of the chunk, scaled by the gain (or not at all if muted), to mix at the given
+    //          frame offset; mono sources go to every mix channel, extra source channels are dropped
+    private void addToMix(float[] mix, int offset, int frames) {
+        float g = muted ? 0 : gain;
+        if (g == 0) {
+            return;
+        }
+        int bytesPerSample = codec.getBytesPerSample();
+        for (int i = 0; i < frames; i++) {
+            int in = i * frameSize;
+            int out = (offset + i) * mixChannels;
+            for (int c = 0; c < mixChannels; c++) {
+                mix[out + c] += g * codec.read(chunk, in + Math.min(c, channels - 1) * bytesPerSample);
+            }
+        }
+    }
+
+    // MODIFIES: this, q
+    // EFFECTS: mixes the queued track into the frames of the chunk at or after its fade start, with
+    //          equal-power gains cos/sin over the fade; returns true if any frame was mixed.
+    //          Uses only preallocated buffers, so nothing is allocated on the mixer thread.
+    private boolean mixQueued(QueuedTrack q, int frames) {
+        int first = (int) Math.max(0, Math.min(frames, q.fadeStart - readFrame));
+        for (int i = first; i < frames; i++) {
+            double progress = Math.min(1.0, (double) q.fadedFrames / q.fadeFrames);
+            float outGain = (float) Math.cos(progress * Math.PI / 2);
+            float inGain = (float) Math.sin(progress * Math.PI / 2);
+            mixFrame(q, i * frameSize, outGain, inGain);
+            q.fadedFrames++;
+        }
+        return first < frames;
+    }
+
+    // MODIFIES: this, q
+    // EFFECTS: replaces the frame at off in the chunk with outGain * itself + inGain * the queued track's next frame
+    private void mixFrame(QueuedTrack q, int off, float outGain, float inGain) {
+        boolean hasNext = refillQueued(q);
+        int bytesPerSample = codec.getBytesPerSample();
+        for (int s = 0; s < frameSize; s += bytesPerSample) {
+            float in = hasNext ? codec.read(q.buffer, q.bufferPos + s) : 0;
+            codec.write(chunk, off + s, outGain * codec.read(chunk, off + s) + inGain * in);
+        }
+        if (hasNext) {
+            q.bufferPos += frameSize;
+        }
+    }
+
+    // MODIFIES: q
+    // EFFECTS: makes sure the queued track's buffer holds at least one unconsumed frame, reading more if needed;
+    //          returns false if the queued track has no more frames
+    private boolean refillQueued(QueuedTrack q) {
+        if (q.bufferPos + frameSize <= q.bufferBytes) {
+            return true;
+        }
+        try {
+            q.bufferPos = 0;
+            q.bufferBytes = Math.max(0, q.source.read(q.buffer, 0, q.buffer.length));
+        } catch (IOException e) {
+            q.bufferBytes = 0;
+        }
+        return q.bufferBytes >= frameSize;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the current source with q (a queued track taken out of queued, or null); the rest of its
+    //          read-ahead chunk is mixed next, right after the current source's last frame. Then notifies its
+    //          listener. returns false if q is null
+    private boolean switchTo(QueuedTrack q) {
+        if (q == null) {
+            return false;
+        }
+        if (mixer.isStarved()) {
+            transitionUnderruns++;
+        }
+        PcmSource ended = source;
+        source = q.source;
+        file = q.file;
+        frameLength = q.source.getFrameLength();
+        ended.close();
+        carry = q.buffer;
+        carryPos = q.bufferPos;
+        carryBytes = q.bufferBytes;
+        readFrame = q.source.getFramePosition() - (carryBytes - carryPos) / frameSize;
+        seekBase = 0;
+        switchedAt = renderPos;
+        q.listener.transitioned(this);
+        return true;
+    }
+
+    // EFFECTS: returns how many frames were mixed between the last sample of the previous track and the first
+    //          sample of the current one at the last gapless transition, or -1 if there was none
+    public long getLastTransitionGap() {
+        return lastTransitionGap;
+    }
+
+    // EFFECTS: returns how many gapless transitions found the output line already empty (i.e. audible as a gap)
+    public int getTransitionUnderruns() {
+        return transitionUnderruns;
+    }
+
+    // EFFECTS: returns the file currently being played
+    public File getFile() {
+        return file;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads up to len bytes of whole frames into the chunk, first from a queued track's remaining
+    //          read-ahead, then from the source; returns bytes read or -1 at the end
+    private int readChunk(int len) {
+        if (carryPos < carryBytes) {
+            int n = Math.min(len, carryBytes - carryPos);
+            System.arraycopy(carry, carryPos, chunk, 0, n);
+            carryPos += n;
+            return n;
+        }
+        try {
+            return source.read(chunk, 0, len);
+        } catch (IOException e) {
+            System.err.println("WARNING: could not read " + file + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the source to the given frame (O(1) for memory-mapped sources) and clears the ended state
+    private void seekSource(long frame) {
+        try {
+            source.seek(frame);
+            carryPos = carryBytes;
+            readFrame = source.getFramePosition();
+            seekBase = readFrame;
+            endFrame = NOT_ENDED;
+        } catch (IOException e) {
+            System.err.println("WARNING: could not seek in " + file + ": " + e.getMessage());
+        }
+    }
+
+    // EFFECTS: returns the frame currently being heard (mixed frames minus what the line still buffers)
+    public long getFramePosition() {
+        if (!isRunning()) {
+            return stoppedFrame;
+        }
+        long seekTo = pendingSeek.get();
+        if (seekTo != NO_SEEK) {
+            return seekTo;
+        }
+        long heard = Math.max(seekBase, readFrame - mixer.getLatencyFrames());
+        return Math.min(heard, frameLength);
+    }
+
+    // EFFECTS: returns whether the voice is currently being mixed
+    public boolean isRunning() {
+        return isRunning(runState.get());
+    }
+
+    // EFFECTS: returns whether the given run state is a running one
+    private static boolean isRunning(long state) {
+        return (state & 1) == 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether the stream restarts from the beginning when it ends
+    public void setLooping(boolean looping) {
+        this.looping = looping;
+    }
+
+    // EFFECTS: returns the voice's gain in dB
+    public float getGain() {
+        return gainDb;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the voice's gain in dB, clamped to the allowed range (the minimum is silence)
+    public void setGain(float db) {
+        gainDb = Math.max(MIN_GAIN, Math.min(MAX_GAIN, db));
+        gain = gainDb <= MIN_GAIN ? 0 : (float) Math.pow(10, gainDb / 20);
+    }
+
+    // EFFECTS: returns maximum gain allowed for a voice
+    public float getMaxGain() {
+        return MAX_GAIN;
+    }
+
+    // EFFECTS: returns minimum gain allowed for a voice
+    public float getMinGain() {
+        return MIN_GAIN;
+    }
+
+    // EFFECTS: returns whether the voice is muted
+    public boolean isMuted() {
+        return muted;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: mutes or unmutes the voice
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the voice and releases its source
+    public void close() {
+        stop();
+        cancelNext();
+        closeLater(source);
+    }
+}
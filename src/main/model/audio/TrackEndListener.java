@@ -0,0 +1,7 @@
+package model.audio;
+
+// Represents a callback run on the mixer's event thread when a player has played its track to the end
+public interface TrackEndListener {
+    // EFFECTS: called once the last frame of the (non-looping) track has been heard and the player has stopped
+    void trackEnded(StreamPlayer player);
+}
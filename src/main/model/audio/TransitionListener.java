@@ -0,0 +1,8 @@
+package model.audio;
+
+// Represents a callback run on the mixer's decoder thread when a player moves on to a queued (gapless) track
+// It must not block or take locks (it would stall the mix), so it should hand any work to another thread
+public interface TransitionListener {
+    // EFFECTS: called right after the player has switched to the queued track, before its first frame is mixed
+    void transitioned(StreamPlayer player);
+}
@@ -0,0 +1,153 @@
+package model.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+// Represents a sink that records the mixed audio into a PCM WAV file, as fast as it is produced.
+// The RIFF sizes in the header are filled in when the backend is closed.
+public class WavFileBackend implements AudioBackend {
+    private static final int HEADER_BYTES = 44;
+
+    private final File file;
+    private RandomAccessFile out;
+    private int frameSize;
+    private int bufferBytes;
+    private volatile long framesWritten = 0;
+
+    // EFFECTS: initializes a sink writing to the given file (created or truncated when opened)
+    public WavFileBackend(File file) {
+        this.file = file;
+    }
+
+    // EFFECTS: returns the file being written
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void open(AudioFormat format, int bufferBytes) throws LineUnavailableException {
+        int bits = format.getSampleSizeInBits();
+        boolean signed = format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED);
+        boolean unsigned = format.getEncoding().equals(AudioFormat.Encoding.PCM_UNSIGNED);
+        if (bits <= 8 ? !unsigned : (!signed || format.isBigEndian())) {
+            throw new LineUnavailableException("WAV files cannot hold " + format);
+        }
+        frameSize = format.getFrameSize();
+        this.bufferBytes = bufferBytes;
+        try {
+            out = new RandomAccessFile(file, "rw");
+            out.setLength(0);
+            out.write(header(format, 0));
+        } catch (IOException e) {
+            throw new LineUnavailableException("Could not create " + file + ": " + e.getMessage());
+        }
+    }
+
+    // EFFECTS: returns a 44-byte PCM WAV header for the format with dataBytes bytes of samples
+    private static byte[] header(AudioFormat format, long dataBytes) {
+        byte[] header = new byte[HEADER_BYTES];
+        putAscii(header, 0, "RIFF");
+        putInt(header, 4, (int) (dataBytes + HEADER_BYTES - 8), 4);
+        putAscii(header, 8, "WAVEfmt ");
+        putInt(header, 16, 16, 4);
+        putInt(header, 20, 1, 2);
+        putInt(header, 22, format.getChannels(), 2);
+        putInt(header, 24, (int) format.getSampleRate(), 4);
+        putInt(header, 28, (int) format.getSampleRate() * format.getFrameSize(), 4);
+        putInt(header, 32, format.getFrameSize(), 2);
+        putInt(header, 34, format.getSampleSizeInBits(), 2);
+        putAscii(header, 36, "data");
+        putInt(header, 40, (int) dataBytes, 4);
+        return header;
+    }
+
+    // MODIFIES: buf
+    // EFFECTS: stores the characters of s from off
+    private static void putAscii(byte[] buf, int off, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            buf[off + i] = (byte) s.charAt(i);
+        }
+    }
+
+    // MODIFIES: buf
+    // EFFECTS: stores the low bytes of value from off, little-endian
+    private static void putInt(byte[] buf, int off, int value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            buf[off + i] = (byte) (value >> (8 * i));
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] buf, int off, int len) {
+        try {
+            out.write(buf, off, len);
+            framesWritten += len / frameSize;
+        } catch (IOException e) {
+            System.err.println("WARNING: could not write to " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        // the file is always being written
+    }
+
+    @Override
+    public void stop() {
+        // nothing is buffered, so there is nothing to pause
+    }
+
+    @Override
+    public void drain() {
+        // every write goes straight to the file
+    }
+
+    @Override
+    public void flush() {
+        // every write goes straight to the file, so nothing can be discarded
+    }
+
+    @Override
+    public int available() {
+        return bufferBytes;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return false;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferBytes;
+    }
+
+    @Override
+    public long getFramePosition() {
+        return framesWritten;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            long dataBytes = out.length() - HEADER_BYTES;
+            out.seek(4);
+            byte[] size = new byte[4];
+            putInt(size, 0, (int) (dataBytes + HEADER_BYTES - 8), 4);
+            out.write(size);
+            out.seek(40);
+            putInt(size, 0, (int) dataBytes, 4);
+            out.write(size);
+            out.close();
+        } catch (IOException e) {
+            System.err.println("WARNING: could not finish " + file + ": " + e.getMessage());
+        }
+        out = null;
+    }
+}
@@ -1,5 +1,6 @@
 package persistence;
 
+import model.PlaylistSnapshot;
 import model.Songs;
 
 import java.io.File;
@@ -135,14 +136,15 @@ public class PlaylistWriter {
             System.err.println("WARNING: File " + file + " exists. Overwriting contents...");
         }
         FileWriter writer = new FileWriter(savedFile);
+        PlaylistSnapshot songs = s.getSnapshot();
         if (!SAVE_EXTENDED) {
-            for (int i = 0; i < s.getLength(); i++) {
-                writer.write(s.get(i).getString() + "\n");
+            for (int i = 0; i < songs.getLength(); i++) {
+                writer.write(songs.getString(i) + "\n");
             }
         } else {
             writer.write("#EXTM3U\n");
-            for (int i = 0; i < s.getLength(); i++) {
-                writer.write(s.get(i).getString() + "\n");
+            for (int i = 0; i < songs.getLength(); i++) {
+                writer.write(songs.getString(i) + "\n");
             }
         }
         writer.flush();
@@ -157,11 +159,12 @@ public class PlaylistWriter {
             System.err.println("WARNING: File " + file + " exists. Overwriting contents...");
         }
         FileWriter writer = new FileWriter(savedFile);
+        PlaylistSnapshot songs = s.getSnapshot();
         writer.write("[playlist]\n\n");
-        for (int i = 0; i < s.getLength(); i++) {
-            writer.write("File" + (i + 1) + "=" + s.get(i).getString() + "\n");
+        for (int i = 0; i < songs.getLength(); i++) {
+            writer.write("File" + (i + 1) + "=" + songs.getString(i) + "\n");
         }
-        writer.write("NumberOfEntries=" + s.getLength() + "\n");
+        writer.write("NumberOfEntries=" + songs.getLength() + "\n");
         writer.write("Version=2");
         writer.flush();
         writer.close();
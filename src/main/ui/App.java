@@ -1,7 +1,16 @@
 package ui;
 
+import model.PlaylistListener;
+import model.PlaylistSnapshot;
+import model.PlaylistStats;
+import model.Songs;
+
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.IntConsumer;
 
 // Represents the app that takes in input
 public class App {
@@ -62,6 +71,39 @@ public class App {
     private static final String APP_OPENNEWCMD = "/open ";
     private static final int APP_OPENNEWLEN = APP_OPENNEWCMD.length();
     private static final int APP_OPENNEW = 25;
+    private static final String APP_ADDALLCMD = "/addAll ";
+    private static final int APP_ADDALLCMDLEN = APP_ADDALLCMD.length();
+    private static final int APP_ADDALL = 26;
+    private static final String APP_QUEUECMD = "/queue ";
+    private static final int APP_QUEUECMDLEN = APP_QUEUECMD.length();
+    private static final int APP_QUEUE = 27;
+    private static final String APP_QUEUENEXTCMD = "/queueNext ";
+    private static final int APP_QUEUENEXTCMDLEN = APP_QUEUENEXTCMD.length();
+    private static final int APP_QUEUENEXT = 28;
+    private static final int APP_LISTQUEUE = 29;
+    private static final int APP_CLEARQUEUE = 30;
+    private static final int APP_PLAYPREV = 31;
+    private static final int APP_SHUFFLE = 32;
+    private static final int APP_NOSHUFFLE = 33;
+    private static final String APP_MOVECMD = "/move ";
+    private static final int APP_MOVECMDLEN = APP_MOVECMD.length();
+    private static final int APP_MOVE = 34;
+    private static final String APP_SWAPCMD = "/swap ";
+    private static final int APP_SWAPCMDLEN = APP_SWAPCMD.length();
+    private static final int APP_SWAP = 35;
+    private static final int APP_STATS = 36;
+    private static final int APP_UNDO = 37;
+    private static final int APP_REDO = 38;
+    private static final String APP_SORTCMD = "/sort ";
+    private static final int APP_SORTCMDLEN = APP_SORTCMD.length();
+    private static final int APP_SORT = 39;
+    private static final String APP_SEARCHCMD = "/search ";
+    private static final int APP_SEARCHCMDLEN = APP_SEARCHCMD.length();
+    private static final int APP_SEARCH = 40;
+    private static final String APP_SEARCHPREFIXCMD = "/searchPrefix ";
+    private static final int APP_SEARCHPREFIXCMDLEN = APP_SEARCHPREFIXCMD.length();
+    private static final int APP_SEARCHPREFIX = 41;
+    private static final String[] SORT_KEY_NAMES = {"path", "name", "duration", "format", "added"}; // by SORT_*
     //</editor-fold>
 
     // EFFECTS: Initializes all variables and runs the application
@@ -124,7 +166,10 @@ public class App {
     private void handleAdvancedInput(String i) {
         switch (stringToFunctionCode(i)) {
             case APP_ADD:
-                add(i.substring(APP_ADDCMDLEN));
+                add(i.substring(APP_ADDCMDLEN), result -> { });
+                return;
+            case APP_ADDALL:
+                addAll(i.substring(APP_ADDALLCMDLEN));
                 return;
             case APP_REMOVE:
                 remove(i.substring(APP_REMCMDLEN));
@@ -161,6 +206,54 @@ public class App {
                 return;
             case APP_OPENNEW:
                 open(input.substring(APP_OPENNEWLEN));
+                return;
+            default:
+                handleQueueInput(input);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: performs the functions of play queue input (adding songs to the queue)
+    private void handleQueueInput(String input) {
+        switch (stringToFunctionCode(input)) {
+            case APP_QUEUE:
+                enqueue(input.substring(APP_QUEUECMDLEN));
+                return;
+            case APP_QUEUENEXT:
+                enqueueNext(input.substring(APP_QUEUENEXTCMDLEN));
+                return;
+            default:
+                handleReorderInput(input);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: performs the functions of reordering input (moving and swapping songs)
+    private void handleReorderInput(String input) {
+        switch (stringToFunctionCode(input)) {
+            case APP_MOVE:
+                moveCmd(input.substring(APP_MOVECMDLEN));
+                return;
+            case APP_SWAP:
+                swapCmd(input.substring(APP_SWAPCMDLEN));
+                return;
+            case APP_SORT:
+                sortCmd(input.substring(APP_SORTCMDLEN));
+                return;
+            default:
+                handleSearchInput(input);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: performs the functions of search input
+    private void handleSearchInput(String input) {
+        switch (stringToFunctionCode(input)) {
+            case APP_SEARCH:
+                search(input.substring(APP_SEARCHCMDLEN), false);
+                return;
+            case APP_SEARCHPREFIX:
+                search(input.substring(APP_SEARCHPREFIXCMDLEN), true);
         }
     }
 
@@ -250,6 +343,48 @@ public class App {
             case APP_SAVEALL:
                 saveAll();
                 return true;
+            default:
+                return handleQueueBasic(fnCode);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: handles play queue, history and shuffle inputs (with zero arguments)
+    private boolean handleQueueBasic(int fnCode) {
+        switch (fnCode) {
+            case APP_LISTQUEUE:
+                listQueue();
+                return true;
+            case APP_CLEARQUEUE:
+                clearQueue();
+                return true;
+            case APP_PLAYPREV:
+                playPrev();
+                return true;
+            case APP_SHUFFLE:
+                setShuffle(true);
+                return true;
+            case APP_NOSHUFFLE:
+                setShuffle(false);
+                return true;
+            case APP_STATS:
+                stats();
+                return true;
+            default:
+                return handleEditBasic(fnCode);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: handles undo and redo inputs (with zero arguments)
+    private boolean handleEditBasic(int fnCode) {
+        switch (fnCode) {
+            case APP_UNDO:
+                undo();
+                return true;
+            case APP_REDO:
+                redo();
+                return true;
             default:
                 return false;
         }
@@ -263,6 +398,8 @@ public class App {
         }
         if (i.startsWith(APP_ADDCMD) && i.length() > APP_ADDCMDLEN) {
             return APP_ADD;
+        } else if (i.startsWith(APP_ADDALLCMD) && i.length() > APP_ADDALLCMDLEN) {
+            return APP_ADDALL;
         } else if (i.startsWith(APP_REMCMD) && i.length() > APP_REMCMDLEN) {
             return APP_REMOVE;
         } else if (i.startsWith(APP_PLAYCMD) && i.length() > APP_PLAYCMDLEN) {
@@ -288,6 +425,27 @@ public class App {
             return APP_SAVEEXT;
         } else if (i.startsWith(APP_OPENNEWCMD) && i.length() > APP_OPENNEW) {
             return APP_OPENNEW;
+        } else if (i.startsWith(APP_QUEUECMD) && i.length() > APP_QUEUECMDLEN) {
+            return APP_QUEUE;
+        } else if (i.startsWith(APP_QUEUENEXTCMD) && i.length() > APP_QUEUENEXTCMDLEN) {
+            return APP_QUEUENEXT;
+        }
+        return stringToFunctionCodeReorder(i);
+    }
+
+    // EFFECTS: returns the corresponding function code to input string
+    //          namely, reordering the active playlist
+    private static int stringToFunctionCodeReorder(String i) {
+        if (i.startsWith(APP_MOVECMD) && i.length() > APP_MOVECMDLEN) {
+            return APP_MOVE;
+        } else if (i.startsWith(APP_SWAPCMD) && i.length() > APP_SWAPCMDLEN) {
+            return APP_SWAP;
+        } else if (i.startsWith(APP_SORTCMD) && i.length() > APP_SORTCMDLEN) {
+            return APP_SORT;
+        } else if (i.startsWith(APP_SEARCHCMD) && i.length() > APP_SEARCHCMDLEN) {
+            return APP_SEARCH;
+        } else if (i.startsWith(APP_SEARCHPREFIXCMD) && i.length() > APP_SEARCHPREFIXCMDLEN) {
+            return APP_SEARCHPREFIX;
         }
         return APP_INVALID;
     }
@@ -343,6 +501,36 @@ public class App {
         } else if (i.equals("/saveAll")) {
             return APP_SAVEALL;
         }
+        return basicStringToFunctionCodeQueue(i);
+    }
+
+    // EFFECTS: returns the corresponding function code for specific input strings
+    //          namely, play queue, history and shuffle commands with no arguments
+    private static int basicStringToFunctionCodeQueue(String i) {
+        if (i.equals("/listQueue")) {
+            return APP_LISTQUEUE;
+        } else if (i.equals("/clearQueue")) {
+            return APP_CLEARQUEUE;
+        } else if (i.equals("/playprev")) {
+            return APP_PLAYPREV;
+        } else if (i.equals("/shuffle")) {
+            return APP_SHUFFLE;
+        } else if (i.equals("/noshuffle")) {
+            return APP_NOSHUFFLE;
+        } else if (i.equals("/stats")) {
+            return APP_STATS;
+        }
+        return basicStringToFunctionCodeEdit(i);
+    }
+
+    // EFFECTS: returns the corresponding function code for specific input strings
+    //          namely, undo and redo
+    private static int basicStringToFunctionCodeEdit(String i) {
+        if (i.equals("/undo")) {
+            return APP_UNDO;
+        } else if (i.equals("/redo")) {
+            return APP_REDO;
+        }
         return APP_INVALID;
     }
 
@@ -447,6 +635,11 @@ public class App {
         playlists.list();
     }
 
+    // EFFECTS: prints the totals of the active playlist and the player thread's metrics
+    public void stats() {
+        playlists.printStats();
+    }
+
     // EFFECTS: lists all playlists
     public void listPlaylists() {
         playlists.listPlaylists();
@@ -463,6 +656,7 @@ public class App {
         System.out.println("To get back to this menu, type /help.");
         System.out.println("Typing /exit or /quit will exit the program.");
         System.out.println("Typing /add <string> adds the <string> into the list of songs.");
+        System.out.println("Typing " + APP_ADDALLCMD + "<a>;<b>;... adds them all (a folder adds all files in it).");
         System.out.println("Typing /remove <string> removes the <string> from the list of songs.");
         System.out.println("Typing /stop stops all songs from playing, unless they are playlist looping.");
         System.out.println("Typing /reset will reset the program.");
@@ -489,14 +683,51 @@ public class App {
         System.out.println("Typing " + APP_SAVEASCMD + " saves currently active file to given name.");
         System.out.println("Typing " + APP_SAVEEXTCMD + " saves currently active file to given file extension.");
         System.out.println("Typing " + APP_OPENNEWCMD + " creates a new playlist from that file.");
+        helpPart3();
+    }
+
+    // EFFECTS: shows the play queue part of the help menu to console
+    public void helpPart3() {
+        System.out.println("Typing " + APP_QUEUECMD + "<string> plays <string> after the songs already queued.");
+        System.out.println("Typing " + APP_QUEUENEXTCMD + "<string> plays <string> right after the current song.");
+        System.out.println("Typing /listQueue lists the queued songs; /clearQueue empties the queue.");
+        System.out.println("Typing /playprev plays the song played before the current one.");
+        System.out.println("Typing /shuffle plays every song once in a random order; /noshuffle stops that.");
+        System.out.println("Typing " + APP_MOVECMD + "<from> <to> moves the song at position <from> to <to>.");
+        System.out.println("Typing " + APP_SWAPCMD + "<a> <b> swaps the songs at positions <a> and <b>.");
+        System.out.println("Typing " + APP_SORTCMD + "<keys> sorts the songs by path, name, duration, format and/or "
+                + "added (e.g. " + APP_SORTCMD + "format -duration); a - sorts by that key in descending order.");
+        System.out.println("Typing " + APP_SEARCHCMD + "<words> lists the songs of all playlists whose paths contain "
+                + "every word; " + APP_SEARCHPREFIXCMD + "<words> only matches the start of words.");
+        System.out.println("Positions start at 1.");
+        System.out.println("Typing /stats shows the totals of the active playlist and how busy the player is.");
+        System.out.println("Typing /undo undoes the last change to the songs of the active playlist; /redo redoes it.");
+    }
 
+    // MODIFIES: this
+    // EFFECTS: adds the given string to song list; returns immediately
+    //          onAdded is given the status code of playlist, on the player thread
+    public void add(String s, IntConsumer onAdded) {
+        playlists.add(s, onAdded);
     }
 
     // MODIFIES: this
-    // EFFECTS: adds the given string to song list
-    //          returns status code of playlist
-    public int add(String s) {
-        return playlists.add(s);
+    // EFFECTS: adds all songs of the given ;-separated paths to song list, in order; a folder stands for
+    //          all files in it (sorted by name); returns immediately (the playlist prints the status of each song)
+    public void addAll(String s) {
+        ArrayList<String> paths = new ArrayList<>();
+        for (String path : s.split(";")) {
+            File[] children = new File(path.trim()).listFiles(File::isFile);
+            if (children == null) {
+                paths.add(path.trim());
+                continue;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                paths.add(child.getPath());
+            }
+        }
+        playlists.addAll(paths, results -> { });
     }
 
     // MODIFIES: this
@@ -591,12 +822,135 @@ public class App {
         return playlists.playPrev();
     }
 
+    // MODIFIES: this
+    // EFFECTS: adds the given song to the end of the play queue
+    public void enqueue(String s) {
+        playlists.enqueue(s, false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the given song to the front of the play queue, to be played next
+    public void enqueueNext(String s) {
+        playlists.enqueue(s, true);
+    }
+
+    // EFFECTS: lists the songs in the play queue, in the order they will be played
+    public void listQueue() {
+        ArrayList<String> queue = playlists.getQueue();
+        if (queue.isEmpty()) {
+            System.out.println("The play queue is empty.");
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            System.out.println((i + 1) + ". " + queue.get(i));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the play queue
+    public void clearQueue() {
+        playlists.clearQueue();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns shuffle mode on or off
+    public void setShuffle(boolean on) {
+        playlists.setShuffle(on);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves a song according to input ("<from> <to>", positions starting at 1)
+    public void moveCmd(String i) {
+        int[] positions = parsePositions(i);
+        if (positions != null) {
+            playlists.move(positions[0] - 1, positions[1] - 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: swaps two songs according to input ("<a> <b>", positions starting at 1)
+    public void swapCmd(String i) {
+        int[] positions = parsePositions(i);
+        if (positions != null) {
+            playlists.swap(positions[0] - 1, positions[1] - 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sorts the active playlist according to input: whitespace-separated keys (path, name, duration,
+    //          format or added), the first deciding first, each in descending order if it starts with "-"
+    public void sortCmd(String i) {
+        String[] parts = i.trim().split("\\s+");
+        int[] keys = new int[parts.length];
+        for (int k = 0; k < parts.length; k++) {
+            boolean descending = parts[k].startsWith("-");
+            keys[k] = Arrays.asList(SORT_KEY_NAMES).indexOf(descending ? parts[k].substring(1) : parts[k]);
+            if (keys[k] == -1) {
+                System.out.println("Invalid sort key: " + parts[k]);
+                return;
+            }
+            keys[k] |= descending ? Songs.SORT_DESCENDING : 0;
+        }
+        playlists.sort(keys);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sorts the active playlist by the given Songs.SORT_* keys (see Songs.sort)
+    public void sort(int... keys) {
+        playlists.sort(keys);
+    }
+
+    // EFFECTS: prints the songs of every playlist whose paths contain each word of query (as the start of one of
+    //          their words if prefix), with the playlists they are in
+    public void search(String query, boolean prefix) {
+        playlists.search(query, prefix);
+    }
+
+    // EFFECTS: returns the songs of every playlist whose paths contain each word of query (as the start of one
+    //          of their words if prefix), as "path (playlist, ...)"; at most limit of them
+    public List<String> findEntries(String query, boolean prefix, int limit) {
+        return playlists.findEntries(query, prefix, limit);
+    }
+
+    // EFFECTS: returns the two whitespace-separated integers of input, or null (printing why) if it is not that
+    private static int[] parsePositions(String i) {
+        String[] parts = i.trim().split("\\s+");
+        try {
+            if (parts.length == 2) {
+                return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.out.println("Invalid argument: " + i);
+        return null;
+    }
+
     // MODIFIES: this
     // EFFECTS: clears current playlist
     public void clearCurrent() {
         playlists.clearCurrent();
     }
 
+    // MODIFIES: this
+    // EFFECTS: undoes the last change to the songs of the current playlist (adding, removing, clearing or
+    //          reordering them)
+    public void undo() {
+        playlists.undo();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: redoes the last undone change to the songs of the current playlist
+    public void redo() {
+        playlists.redo();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a listener, told (on the player thread) of changes to the active playlist and of switching,
+    //          creating or removing playlists
+    public void addListener(PlaylistListener listener) {
+        playlists.addListener(listener);
+    }
+
     //<editor-fold desc="Convenience Methods">
 
     // EFFECTS: returns last index played (convenience method)
@@ -639,6 +993,16 @@ public class App {
         return playlists.getCurrentPlaylistLength();
     }
 
+    // EFFECTS: returns the totals of the current playlist, e.g. its number of songs and length (convenience method)
+    public PlaylistStats getCurrentPlaylistStats() {
+        return playlists.getCurrentPlaylistStats();
+    }
+
+    // EFFECTS: gets a consistent snapshot of the current playlist (convenience method)
+    public PlaylistSnapshot getCurrentPlaylistSnapshot() {
+        return playlists.getCurrentPlaylistSnapshot();
+    }
+
     // EFFECTS: returns whether or not the current playlist is paused
     public boolean isCurrentPlaylistPaused() {
         return playlists.isCurrentPlaylistPaused();
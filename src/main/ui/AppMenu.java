@@ -4,8 +4,13 @@ import model.Songs;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.Dimension;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 // Represents the App Menu in the App Panel
 public class AppMenu extends JMenuBar {
@@ -27,6 +32,7 @@ public class AppMenu extends JMenuBar {
     public AppMenu() {
         setupFileFilters();
         setupFileOption();
+        setupEditOption();
         setupPlaylistOption();
     }
 
@@ -85,6 +91,78 @@ public class AppMenu extends JMenuBar {
         App.getActiveApp().clearCurrent();
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets up Edit menu option (undo and redo of changes to the current playlist's songs)
+    private void setupEditOption() {
+        JMenu editMenu = new JMenu("Edit");
+        JMenuItem undo = new JMenuItem("Undo");
+        undo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+        undo.addActionListener(e -> App.getActiveApp().undo());
+        JMenuItem redo = new JMenuItem("Redo");
+        redo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+        redo.addActionListener(e -> App.getActiveApp().redo());
+        editMenu.add(undo);
+        editMenu.add(redo);
+        editMenu.add(setupSortOption());
+        JMenuItem find = new JMenuItem("Find...");
+        find.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, InputEvent.CTRL_DOWN_MASK));
+        find.addActionListener(e -> find());
+        editMenu.add(find);
+        add(editMenu);
+    }
+
+    // EFFECTS: asks for words to search for and shows the songs of all playlists whose paths contain them;
+    //          the search runs off the event dispatch thread
+    private void find() {
+        String query = JOptionPane.showInputDialog(this, "Find songs whose paths contain:", "Find",
+                JOptionPane.QUESTION_MESSAGE);
+        if (query == null || query.trim().isEmpty()) {
+            return;
+        }
+        new SwingWorker<List<String>, Void>() {
+            @Override
+            // EFFECTS: searches the playlists on a worker thread
+            protected List<String> doInBackground() {
+                return App.getActiveApp().findEntries(query, false, Playlists.SEARCH_LIMIT);
+            }
+
+            @Override
+            // EFFECTS: shows the matches on the event dispatch thread
+            protected void done() {
+                try {
+                    showMatches(query, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("WARNING: search failed: " + e);
+                }
+            }
+        }.execute();
+    }
+
+    // EFFECTS: shows the songs matching query
+    private void showMatches(String query, List<String> matches) {
+        if (matches.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No songs match " + query + ".");
+            return;
+        }
+        JScrollPane results = new JScrollPane(new JList<>(matches.toArray(new String[0])));
+        results.setPreferredSize(new Dimension(600, 300));
+        JOptionPane.showMessageDialog(this, results, matches.size() + " matches", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    // EFFECTS: returns Edit/Sort by menu option, sorting the current playlist by one key
+    private JMenu setupSortOption() {
+        JMenu sortMenu = new JMenu("Sort by");
+        String[] names = {"Path", "File name", "Duration", "Format", "Date added"};
+        int[] keys = {Songs.SORT_PATH, Songs.SORT_NAME, Songs.SORT_DURATION, Songs.SORT_FORMAT, Songs.SORT_ADDED};
+        for (int i = 0; i < names.length; i++) {
+            int key = keys[i];
+            JMenuItem item = new JMenuItem(names[i]);
+            item.addActionListener(e -> App.getActiveApp().sort(key));
+            sortMenu.add(item);
+        }
+        return sortMenu;
+    }
+
     // EFFECTS: returns Open/Playlist menu option
     private JMenuItem setupOpenPlaylistOption() {
         AppMenu appMenuInstance = this;
@@ -207,14 +285,18 @@ public class AppMenu extends JMenuBar {
         jfc.setMultiSelectionEnabled(false);
         if (jfc.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = jfc.getSelectedFile();
-            final int result = App.getActiveApp().add(file.getPath());
-            if (result == Songs.ADDSTATUS_ERROR) {
-                JOptionPane.showMessageDialog(this, ADD_ERROR_MSG, "Error", JOptionPane.ERROR_MESSAGE);
-            } else if (result == Songs.ADDSTATUS_UNSUPPORTED) {
-                JOptionPane.showMessageDialog(this, ADD_UNSUP_MSG, "Error", JOptionPane.ERROR_MESSAGE);
-            } else if (result == Songs.ADDSTATUS_EXISTS) {
-                JOptionPane.showMessageDialog(this, ADD_EXIST_MSG, "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            App.getActiveApp().add(file.getPath(), result -> SwingUtilities.invokeLater(() -> showAddStatus(result)));
+        }
+    }
+
+    // EFFECTS: shows an error dialog if adding a file failed with given status code
+    private void showAddStatus(int result) {
+        if (result == Songs.ADDSTATUS_ERROR) {
+            JOptionPane.showMessageDialog(this, ADD_ERROR_MSG, "Error", JOptionPane.ERROR_MESSAGE);
+        } else if (result == Songs.ADDSTATUS_UNSUPPORTED) {
+            JOptionPane.showMessageDialog(this, ADD_UNSUP_MSG, "Error", JOptionPane.ERROR_MESSAGE);
+        } else if (result == Songs.ADDSTATUS_EXISTS) {
+            JOptionPane.showMessageDialog(this, ADD_EXIST_MSG, "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
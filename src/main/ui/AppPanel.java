@@ -1,23 +1,31 @@
 package ui;
 
+import model.PlaylistEvent;
+
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Represents the panel of all the parts in the App
+// Its parts are updated when the active playlist changes (as told by App's listeners), and only the parts showing
+// what changed; while a song is playing, a timer moves the time slider along.
 public class AppPanel extends JPanel {
     public static final int DEFAULT_WIDTH = 1000;
     public static final int DEFAULT_HEIGHT = 480;
     public static final Color DEFAULT_BACKGROUND = new Color(255, 255, 255);
     public static final String CAT_IMG = "./data/icon/cat.png";
+    public static final int POSITION_UPDATE_RATE = 20;
     public static BufferedImage catImage;
 
     private PlaylistView pv;
     private TopAppPanel tap;
     private BottomAppPanel bap;
+    private final Timer positionTimer;
+    private final AtomicInteger pendingChanges = new AtomicInteger(); // CHANGED_* bits not shown yet
 
     // EFFECTS: initializes AppPanel with starting conditions
     AppPanel() {
@@ -31,6 +39,9 @@ public class AppPanel extends JPanel {
         add(tap, BorderLayout.PAGE_START);
         pv = new PlaylistView();
         add(pv, BorderLayout.CENTER);
+        positionTimer = new Timer(POSITION_UPDATE_RATE, ae -> bap.updatePosition());
+        App.getActiveApp().addListener(this::changed);
+        update();
     }
 
     // MODIFIES: this
@@ -49,9 +60,47 @@ public class AppPanel extends JPanel {
         pv.update();
         tap.update();
         bap.update();
+        updatePositionTimer();
         repaint();
     }
 
+    // EFFECTS: on the player thread - has the parts showing what changed updated on the Swing thread; changes
+    //          told before that update runs are shown by the same update
+    private void changed(PlaylistEvent event) {
+        if (pendingChanges.getAndUpdate(p -> p | event.getChanges()) == 0) {
+            SwingUtilities.invokeLater(this::showChanges);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: updates and re-renders the parts showing the changes told since the last update
+    private void showChanges() {
+        int changes = pendingChanges.getAndSet(0);
+        if ((changes & (PlaylistEvent.CHANGED_ENTRIES | PlaylistEvent.CHANGED_SWITCHED)) != 0) {
+            pv.update();
+        } else if ((changes & PlaylistEvent.CHANGED_PLAYBACK) != 0) {
+            pv.updateRows();
+        }
+        if ((changes & (PlaylistEvent.CHANGED_SWITCHED | PlaylistEvent.CHANGED_PLAYLISTS)) != 0) {
+            tap.update();
+        } else if ((changes & PlaylistEvent.CHANGED_ENTRIES) != 0) {
+            tap.updateStats();
+        }
+        bap.update();
+        updatePositionTimer();
+        repaint();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: runs the time slider's timer while a song is playing, and stops it otherwise
+    private void updatePositionTimer() {
+        if (App.getActiveApp().isPlaying()) {
+            positionTimer.start();
+        } else {
+            positionTimer.stop();
+        }
+    }
+
     @Override
     // MODIFIES: this
     // EFFECTS: re-draws the graphics of sub-components and allows drawing over
@@ -48,6 +48,12 @@ public class BottomAppPanel extends JPanel {
         ppb.update();
         sb.update();
         mb.update();
+        updatePosition();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: updates the time slider and time stamp to match the position in the current song
+    public void updatePosition() {
         ts.update();
         updateTimeStamp();
     }
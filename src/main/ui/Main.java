@@ -2,7 +2,6 @@ package ui;
 
 public class Main {
 
-    // TODO: Potentially use Observers
     // TODO: Potentially use JavaFX Media instead of AudioSystem - supports MP3 Files
 
     public static void main(String[] args) {
@@ -1,5 +1,8 @@
 package ui;
 
+import model.PlaylistSnapshot;
+import model.SoundFile;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
@@ -15,21 +18,19 @@ public class PlaylistRow extends JPanel {
     private JLabel leftSide;
     private JLabel rightSide;
 
-    // EFFECTS: initializes PlaylistRow with songsInstance and song index
+    // EFFECTS: initializes PlaylistRow with the song of given index in a snapshot of the current playlist
     //          throws IndexOutOfBoundsException if index is out of bounds
-    public PlaylistRow(int index) {
+    public PlaylistRow(PlaylistSnapshot songs, int index) {
         this.index = index;
-        if (index > App.getActiveApp().getCurrentPlaylistLength()) {
-            throw new IndexOutOfBoundsException("Index out of bounds: " + index);
-        }
+        SoundFile song = songs.get(index);
         setLayout(new GridLayout(0, 2));
         setAlignmentX(Component.LEFT_ALIGNMENT);
-        leftSide = new JLabel(App.getActiveApp().getSongName(index));
-        rightSide = new JLabel(App.getActiveApp().getSongTimeStamp(index));
+        leftSide = new JLabel(song.getString());
+        rightSide = new JLabel(song.stringLength());
         setBackground(DEFAULT_BACKGROUND);
         add(leftSide);
         add(rightSide);
-        popup = new PopUpMenu(index);
+        popup = new PopUpMenu(index, song.getString());
         setComponentPopupMenu(popup);
         updateBoldStatus();
     }
@@ -52,15 +53,15 @@ public class PlaylistRow extends JPanel {
         JMenuItem stop;
         JMenuItem play;
 
-        // Initializes the PopUpMenu
-        public PopUpMenu(int index) {
+        // Initializes the PopUpMenu for the song of given index and name
+        public PopUpMenu(int index, String name) {
             this.index = index;
             play = new JMenuItem("Play");
-            play.addMouseListener(new PlayClickListener(index));
+            play.addMouseListener(new PlayClickListener(name));
             stop = new JMenuItem("Stop");
             stop.addMouseListener(new StopClickListener(index));
             JMenuItem remove = new JMenuItem("Remove");
-            remove.addMouseListener(new RemoveClickListener(index));
+            remove.addMouseListener(new RemoveClickListener(name));
             add(play);
             add(stop);
             add(remove);
@@ -85,8 +86,8 @@ public class PlaylistRow extends JPanel {
             private String name;
 
             // EFFECTS: Initializes the RemoveClickListener with a song to remove
-            public RemoveClickListener(int index) {
-                name = App.getActiveApp().getSongName(index);
+            public RemoveClickListener(String name) {
+                this.name = name;
             }
 
             @Override
@@ -103,8 +104,8 @@ public class PlaylistRow extends JPanel {
             private String name;
 
             // EFFECTS: Initializes the PlayClickListener with a soundFile to play
-            public PlayClickListener(int index) {
-                name = App.getActiveApp().getSongName(index);
+            public PlayClickListener(String name) {
+                this.name = name;
             }
 
             @Override
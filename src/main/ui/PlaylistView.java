@@ -1,5 +1,7 @@
 package ui;
 
+import model.PlaylistSnapshot;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
@@ -27,9 +29,9 @@ public class PlaylistView extends JPanel {
         addHeader();
         JPanel rows = new JPanel();
         rows.setBackground(Color.WHITE);
-        int length = App.getActiveApp().getCurrentPlaylistLength();
-        for (int i = 0; i < length; i++) {
-            PlaylistRow row = new PlaylistRow(i);
+        PlaylistSnapshot songs = App.getActiveApp().getCurrentPlaylistSnapshot();
+        for (int i = 0; i < songs.getLength(); i++) {
+            PlaylistRow row = new PlaylistRow(songs, i);
             playlistRows.add(row);
             rows.add(row);
         }
@@ -58,4 +60,13 @@ public class PlaylistView extends JPanel {
         validate(); // cuz removeAll invalidates everything for some reason.
         repaint();
     }
+
+    // MODIFIES: this
+    // EFFECTS: updates which rows are shown as playing, without re-reading the songs
+    public void updateRows() {
+        for (PlaylistRow row : playlistRows) {
+            row.update();
+        }
+        repaint();
+    }
 }
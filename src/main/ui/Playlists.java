@@ -1,7 +1,14 @@
 package ui;
 
 import exception.ParsingException;
+import model.PlayerActor;
+import model.PlaylistEvent;
+import model.PlaylistListener;
+import model.PlaylistSnapshot;
+import model.PlaylistStats;
+import model.SearchIndex;
 import model.Songs;
+import model.SoundFile;
 import persistence.FileType;
 import persistence.PlaylistParser;
 import persistence.PlaylistWriter;
@@ -10,13 +17,31 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 // Represents a group of playlists
+// Playback commands and playlist edits are run on the PlayerActor thread, so they never block the caller on
+// audio I/O (printing their results from there); getters read the playlists' latest snapshots.
+// Listeners are told (on the player thread) of the changes to the active playlist and of switching playlists.
 public class Playlists {
-    private HashMap<String, Songs> lists = new HashMap<>(); // I could also use Map, but I prefer HashMap
+    private final ConcurrentHashMap<String, Songs> lists = new ConcurrentHashMap<>(); // also read by searches
+    private final PlayerActor player = PlayerActor.getInstance();
     public static final String MAIN = "Main";
-    private String currentlyUsed = MAIN;
+    private volatile String currentlyUsed = MAIN;
+    private volatile Songs active; // lists.get(currentlyUsed), for the player thread
+    private final CopyOnWriteArrayList<PlaylistListener> listeners = new CopyOnWriteArrayList<>();
+    private final PlaylistListener forwarder = this::forward; // listens to every playlist
+    private final SearchIndex index = new SearchIndex(); // paths of the songs of every playlist
+    public static final int SEARCH_LIMIT = 50; // most matches printed by search
     //<editor-fold desc="RETURN VALUES">
     public static final int PLAY_DNE = -2;
     public static final int PLAY_EMPTY = -1;
@@ -29,18 +54,91 @@ public class Playlists {
 
     // EFFECTS: initializes a main playlist
     public Playlists() {
-        lists.put(MAIN, new Songs());
+        put(MAIN, new Songs());
+        active = lists.get(MAIN);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a listener, told of every later change to the active playlist, of switching playlists and
+    //          of creating, opening or removing them
+    public void addListener(PlaylistListener listener) {
+        listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes a listener added with addListener
+    public void removeListener(PlaylistListener listener) {
+        listeners.remove(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds playlist s under given name, listening to its changes
+    private void put(String name, Songs s) {
+        lists.put(name, s);
+        s.addListener(forwarder);
+        player.submit(s, () -> {
+            s.setSearchIndex(index);
+            index.publish();
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the playlist of given name (which is not the active one), no longer listening to it
+    private void drop(String name) {
+        lists.remove(name).removeListener(forwarder);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes the playlist of given name the active one and tells the listeners of that (if it was not
+    //          already active) and of the given CHANGED_* changes
+    private void use(String name, int changes) {
+        Songs before = active;
+        currentlyUsed = name;
+        active = lists.get(name);
+        changes |= before == active ? 0 : PlaylistEvent.CHANGED_SWITCHED;
+        if (changes != 0) {
+            PlaylistEvent event = new PlaylistEvent(active, changes, before.getSnapshot(), active.getSnapshot());
+            player.submit(this, () -> tell(event));
+        }
+    }
+
+    // EFFECTS: on the player thread - publishes the search index if songs were added, and passes a change to the
+    //          active playlist on to the listeners
+    private void forward(PlaylistEvent event) {
+        if ((event.getChanges() & PlaylistEvent.CHANGED_ADDED) != 0) {
+            index.publish();
+        }
+        if (event.getSource() == active) {
+            tell(event);
+        }
+    }
+
+    // EFFECTS: on the player thread - tells the listeners of event
+    private void tell(PlaylistEvent event) {
+        for (PlaylistListener listener : listeners) {
+            try {
+                listener.playlistChanged(event);
+            } catch (RuntimeException e) {
+                System.err.println("WARNING: playlist listener failed: " + e);
+            }
+        }
     }
 
     // MODIFIES: this
     // EFFECTS: jumps current playlist to given location
+    //          returns SKIP_FAIL if there is nothing to jump in, SKIP_SUCCESS otherwise
     public int jumpTo(long micros) {
-        System.out.println("Jumping to " + micros + " microseconds...");
-        int result = lists.get(currentlyUsed).jumpTo(micros);
-        if (result == SKIP_SUCCESS) {
-            System.out.println("Successfully jumped to location!");
+        Songs instance = lists.get(currentlyUsed);
+        if (instance.isEmpty() && instance.getLastIndexPlayed() == -1) {
+            return SKIP_FAIL;
         }
-        return result;
+        System.out.println("Jumping to " + micros + " microseconds...");
+        player.submit(instance, PlayerActor.CMD_SEEK, () -> {
+            if (instance.jumpTo(micros) == SKIP_SUCCESS) {
+                System.out.println("Successfully jumped to location!");
+            }
+        });
+        return SKIP_SUCCESS;
     }
 
     // MODIFIES: this
@@ -51,9 +149,9 @@ public class Playlists {
         } else if (!lists.containsKey(key)) {
             System.out.println("Playlist " + key + " not found.");
         } else {
-            lists.remove(key);
+            use(MAIN, PlaylistEvent.CHANGED_PLAYLISTS);
+            drop(key);
             System.out.println("Playlist " + key + " has been removed.");
-            currentlyUsed = MAIN;
         }
     }
 
@@ -64,36 +162,49 @@ public class Playlists {
         if (instance.isEmpty()) {
             return PREV_DNE;
         }
+        player.submit(instance, () -> playPrev(instance));
+        return PREV_SUCCESS;
+    }
+
+    // MODIFIES: instance
+    // EFFECTS: on the player thread - plays the song played before the current one in instance (or the one
+    //          before it in playlist or shuffle order if there is no history), or restarts the current one if it
+    //          has been playing for a while
+    private static void playPrev(Songs instance) {
         int currentIndexPlaying = instance.indexPlaying();
-        if (currentIndexPlaying == -1) {
-            playPrevWhenStopped();
-        } else {
-            if (instance.get(currentIndexPlaying).getTimePosition() > 0) {
-                jumpToZero();
-            } else if (currentIndexPlaying == 0) {
-                instance.play(instance.get(0).getString());
-                jumpToZero();
-            } else {
-                instance.play(instance.get(currentIndexPlaying - 1).getString());
-            }
+        if (instance.isEmpty()) {
+            return;
+        } else if (currentIndexPlaying == -1) {
+            playPrevWhenStopped(instance);
+        } else if (instance.get(currentIndexPlaying).getTimePosition() > 0) {
+            instance.jumpTo(0);
+        } else if (!instance.playPrevious()) {
+            playBefore(instance, currentIndexPlaying);
         }
-        return PREV_SUCCESS;
     }
 
-    // MODIFIES: this
-    // EFFECTS: plays previous song when player is paused/stopped
-    private void playPrevWhenStopped() {
-        Songs instance = lists.get(currentlyUsed);
+    // MODIFIES: instance
+    // EFFECTS: on the player thread - plays the song before the one at index in playlist or shuffle order, or
+    //          restarts it if it is the first one
+    private static void playBefore(Songs instance, int index) {
+        int before = instance.indexBefore(index);
+        instance.play(instance.get(before == -1 ? index : before).getString());
+        if (before == -1) {
+            instance.jumpTo(0);
+        }
+    }
+
+    // MODIFIES: instance
+    // EFFECTS: on the player thread - plays previous song when player is paused/stopped
+    private static void playPrevWhenStopped(Songs instance) {
         int lastPlayed = instance.getLastIndexPlayed();
         if (lastPlayed == -1) {
             instance.play(instance.get(0).getString());
-        } else if (lastPlayed == 0) {
-            instance.play(instance.get(0).getString());
-            jumpToZero();
-        } else if (instance.get(lastPlayed).isPaused() && instance.get(lastPlayed).getPausedTimePosition() > 0) {
-            jumpToZero();
-        } else {
-            instance.play(instance.get(lastPlayed - 1).getString());
+        } else if (instance.indexBefore(lastPlayed) != -1 && instance.get(lastPlayed).isPaused()
+                && instance.get(lastPlayed).getPausedTimePosition() > 0) {
+            instance.jumpTo(0);
+        } else if (!instance.playPrevious()) {
+            playBefore(instance, lastPlayed);
         }
     }
 
@@ -110,8 +221,8 @@ public class Playlists {
             System.out.println("Playlist " + name + " already exists.");
             return;
         }
-        lists.put(name, new Songs());
-        currentlyUsed = name;
+        put(name, new Songs());
+        use(name, PlaylistEvent.CHANGED_PLAYLISTS);
         System.out.println("Playlist  " + name + " created.");
     }
 
@@ -122,44 +233,73 @@ public class Playlists {
             System.out.println("Playlist " + name + " does not exist.");
             return;
         }
-        currentlyUsed = name;
+        use(name, 0);
         System.out.println("Playlist " + name + "  now in focus.");
     }
 
     // MODIFIES: this
-    // EFFECTS: clears current playlist
+    // EFFECTS: clears current playlist (which can be undone)
     public void clearCurrent() {
-        App.getActiveApp().clearCurrent();
+        String name = currentlyUsed;
+        Songs instance = lists.get(name);
+        player.submit(instance, () -> {
+            instance.clear();
+            System.out.println("Playlist " + name + " cleared. Type /undo to bring its songs back.");
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: undoes the latest edit of the songs in the active playlist
+    public void undo() {
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> System.out.println(instance.undo() ? "Undid the last change."
+                : "Nothing to undo."));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: redoes the latest undone edit of the songs in the active playlist
+    public void redo() {
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> System.out.println(instance.redo() ? "Redid the last undone change."
+                : "Nothing to redo."));
     }
 
     // MODIFIES: this
     // EFFECTS: resets the playlist
     public void reset() {
-        for (String key : lists.keySet()) {
+        use(MAIN, PlaylistEvent.CHANGED_PLAYLISTS);
+        for (String key : new ArrayList<>(lists.keySet())) {
             if (!key.equals(MAIN)) {
-                lists.get(key).disableLoopPlaylist();
-                lists.get(key).noLoop();
-                lists.get(key).stopAll();
-                lists.remove(key);
+                Songs removed = lists.get(key);
+                player.submit(removed, () -> {
+                    removed.disableLoopPlaylist();
+                    removed.noLoop();
+                    removed.stopAll();
+                });
+                drop(key);
                 System.out.println("Playlist " + key + " has been removed.");
             }
         }
-        lists.get(MAIN).stopAll();
-        lists.get(MAIN).disableLoopPlaylist();
-        lists.get(MAIN).noLoop();
-        lists.get(MAIN).clear();
-        lists.get(MAIN).unmute();
-        System.out.println("Main playlist has been reset.");
+        Songs main = lists.get(MAIN);
+        player.submit(main, () -> {
+            main.stopAll();
+            main.disableLoopPlaylist();
+            main.noLoop();
+            main.clear();
+            main.unmute();
+            System.out.println("Main playlist has been reset.");
+        });
     }
 
     // MODIFIES: this
     // EFFECTS: plays next song in active playlist
     public int playNext() {
-        if (lists.get(currentlyUsed).getLength() == 0) {
+        Songs instance = lists.get(currentlyUsed);
+        if (instance.getLength() == 0) {
             System.out.println("There is no song to play.");
             return PLAY_EMPTY;
         }
-        lists.get(currentlyUsed).playNext();
+        player.submit(instance, instance::playNext);
         System.out.println("Playing next song...");
         return PLAY_SUCCESS;
     }
@@ -168,30 +308,46 @@ public class Playlists {
     // EFFECTS: enables single-song-looping in active playlist
     public void loop() {
         System.out.println("Single song loop has been enabled!");
-        lists.get(currentlyUsed).disableLoopPlaylist();
-        lists.get(currentlyUsed).loop();
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            instance.disableLoopPlaylist();
+            instance.loop();
+        });
     }
 
     // MODIFIES: this
     // EFFECTS: disables single-song-looping in active playlist
     public void noLoop() {
         System.out.println("Single song loop has been disabled!");
-        lists.get(currentlyUsed).noLoop();
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, instance::noLoop);
     }
 
     // MODIFIES: this
     // EFFECTS: enables playlist-looping in active playlist
     public void enablePlaylistLoop() {
         System.out.println("Playlist loop has been enabled!");
-        lists.get(currentlyUsed).noLoop();
-        lists.get(currentlyUsed).loopPlaylist();
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            instance.noLoop();
+            instance.loopPlaylist();
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns shuffle mode of active playlist on or off
+    public void setShuffle(boolean on) {
+        System.out.println(on ? "Shuffle has been enabled!" : "Shuffle has been disabled!");
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> instance.setShuffle(on));
     }
 
     // MODIFIES: this
     // EFFECTS: disables single-song-looping in active playlist
     public void disablePlaylistLoop() {
         System.out.println("Playlist loop has been disabled!");
-        lists.get(currentlyUsed).disableLoopPlaylist();
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, instance::disableLoopPlaylist);
     }
 
     // EFFECTS: gets whether the main playlist is playing a song
@@ -214,8 +370,9 @@ public class Playlists {
             val = Songs.MIN_VOLUME;
             System.out.println("Volume under min gain setting. Switching to: " + val);
         }
+        float volume = val;
         for (Songs s : lists.values()) {
-            s.setVolume(val);
+            player.submit(s, PlayerActor.CMD_VOLUME, () -> s.setVolume(volume));
         }
         System.out.println("Set volume to: " + val);
     }
@@ -224,7 +381,7 @@ public class Playlists {
     // EFFECTS: sets volume of all playlists to lowest setting
     public void mute() {
         for (Songs s : lists.values()) {
-            s.mute();
+            player.submit(s, s::mute);
         }
         System.out.println("Muted all playlists.");
     }
@@ -233,7 +390,7 @@ public class Playlists {
     // EFFECTS: sets volume of all playlists to lowest setting
     public void unmute() {
         for (Songs s : lists.values()) {
-            s.unmute();
+            player.submit(s, s::unmute);
         }
         System.out.println("Unmuted all playlists.");
     }
@@ -241,6 +398,23 @@ public class Playlists {
     // EFFECTS: prints all songs in active playlists
     public void list() {
         System.out.println("List of songs: \n" + lists.get(currentlyUsed).list());
+        System.out.println(lists.get(currentlyUsed).getStats().summary());
+    }
+
+    // EFFECTS: prints the totals of the active playlist and the metrics of the player thread
+    public void printStats() {
+        PlaylistStats stats = lists.get(currentlyUsed).getStats();
+        System.out.println(currentlyUsed + ": " + stats.summary() + ", "
+                + String.format(Locale.ROOT, "%.1f MB", stats.getTotalBytes() / 1e6));
+        for (Map.Entry<String, Integer> type : stats.getTypeCounts().entrySet()) {
+            System.out.println("  ." + type.getKey() + ": " + type.getValue());
+        }
+        for (Map.Entry<Float, Integer> rate : stats.getSampleRateCounts().entrySet()) {
+            System.out.println(String.format(Locale.ROOT, "  %.0f Hz: %d", rate.getKey(), rate.getValue()));
+        }
+        System.out.println("Player thread: " + player.getCommandsRun() + " commands run, "
+                + player.getCommandsCoalesced() + " coalesced, " + player.getQueueLength() + " queued, latency "
+                + player.getAverageLatencyMicros() + " us average, " + player.getMaxLatencyMicros() + " us max");
     }
 
     // EFFECTS: prints all names of playlists
@@ -263,19 +437,43 @@ public class Playlists {
     // MODIFIES: this
     // EFFECTS: pauses playing song in active playlist
     public void pause() {
-        boolean result = lists.get(currentlyUsed).pause();
-        if (result) {
-            System.out.println("Currently playing song has been paused!");
-        } else {
-            System.out.println("No song was playing.");
-        }
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            if (instance.pause()) {
+                System.out.println("Currently playing song has been paused!");
+            } else {
+                System.out.println("No song was playing.");
+            }
+        });
     }
 
     // MODIFIES: this
-    // EFFECTS: adds given path to song into active playlist
-    //          returns value returned by Songs instance
-    public int add(String s) {
-        int result = lists.get(currentlyUsed).add(s);
+    // EFFECTS: adds given path to song into active playlist, reading its header off the player thread
+    //          onAdded is given the value returned by Songs instance, on the player thread; returns immediately
+    public void add(String s, IntConsumer onAdded) {
+        addAll(Collections.singletonList(s), results -> onAdded.accept(results[0]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the given paths to songs into active playlist, in order, reading their headers in parallel
+    //          off the player thread and adding them on it once all are read
+    //          onAdded is given the values returned by the Songs instance, one per path, on the player thread;
+    //          returns immediately
+    public void addAll(List<String> paths, Consumer<int[]> onAdded) {
+        Songs instance = lists.get(currentlyUsed);
+        List<CompletableFuture<SoundFile>> probes = Songs.probe(paths);
+        CompletableFuture<?>[] pending = probes.stream().filter(Objects::nonNull).toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(pending).whenComplete((done, failed) -> player.submit(instance, () -> {
+            int[] results = instance.addProbed(paths, probes);
+            for (int i = 0; i < results.length; i++) {
+                printAddStatus(paths.get(i), results[i]);
+            }
+            onAdded.accept(results);
+        }));
+    }
+
+    // EFFECTS: prints the result of adding path s
+    private static void printAddStatus(String s, int result) {
         if (result == Songs.ADDSTATUS_SUCCESSFUL) {
             System.out.println(s + " added.");
         } else if (result == Songs.ADDSTATUS_EXISTS) {
@@ -285,19 +483,98 @@ public class Playlists {
         } else if (result == Songs.ADDSTATUS_ERROR) {
             System.out.println("Could not add: " + s + ". It may not exist or be a random error.");
         }
-        return result;
     }
 
     // MODIFIES: this
     // EFFECTS: removes the given file from active playlist
     public void remove(String c) {
-        if (lists.get(currentlyUsed).remove(c)) {
-            System.out.println(c + " removed.");
-        } else {
-            System.out.println("Could not remove " + c + ".");
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            if (instance.remove(c)) {
+                System.out.println(c + " removed.");
+            } else {
+                System.out.println("Could not remove " + c + ".");
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the song at index from of the active playlist to index to
+    public void move(int from, int to) {
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            if (from < 0 || to < 0 || from >= instance.getLength() || to >= instance.getLength()) {
+                System.out.println("Could not move: no song at " + (from + 1) + " or " + (to + 1) + ".");
+            } else {
+                instance.move(from, to);
+                System.out.println(instance.getString(to) + " moved.");
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: swaps the songs at indices i and j of the active playlist
+    public void swap(int i, int j) {
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            if (i < 0 || j < 0 || i >= instance.getLength() || j >= instance.getLength()) {
+                System.out.println("Could not swap: no song at " + (i + 1) + " or " + (j + 1) + ".");
+            } else {
+                instance.swap(i, j);
+                System.out.println("Songs swapped.");
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sorts the active playlist by the given Songs.SORT_* keys (see Songs.sort)
+    public void sort(int... keys) {
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            instance.sort(keys);
+            System.out.println("Playlist sorted.");
+        });
+    }
+
+    // EFFECTS: prints the songs of every playlist whose paths contain each word of query (as the start of one of
+    //          their words if prefix), with the playlists they are in; at most SEARCH_LIMIT of them
+    public void search(String query, boolean prefix) {
+        List<String> matches = findEntries(query, prefix, SEARCH_LIMIT);
+        if (matches.isEmpty()) {
+            System.out.println("No songs match " + query + ".");
+        }
+        for (String match : matches) {
+            System.out.println(match);
+        }
+        if (matches.size() == SEARCH_LIMIT) {
+            System.out.println("(showing the first " + SEARCH_LIMIT + " matches)");
         }
     }
 
+    // EFFECTS: returns the songs of every playlist whose paths contain each word of query (as the start of one
+    //          of their words if prefix), as "path (playlist, ...)", in the order they were first added; at most
+    //          limit of them (searching the published index and the playlists' snapshots, without waiting for
+    //          the player thread)
+    public List<String> findEntries(String query, boolean prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        for (String path : index.search(query, prefix, limit, p -> !playlistsWith(p).isEmpty())) {
+            result.add(path + " (" + String.join(", ", playlistsWith(path)) + ")");
+        }
+        return result;
+    }
+
+    // EFFECTS: returns the names of the playlists with a song of given path (in their latest snapshots), in order
+    private List<String> playlistsWith(String path) {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Songs> entry : lists.entrySet()) {
+            if (entry.getValue().getSnapshot().contains(path)) {
+                names.add(entry.getKey());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
     // MODIFIES: this
     // EFFECTS: removes file of given index (convenience method)
     public void remove(int index) {
@@ -308,18 +585,49 @@ public class Playlists {
     // EFFECTS: stops all playing soundfiles in active playlist
     public void stop() {
         System.out.println("Stopping all sounds in current playlist...");
-        lists.get(currentlyUsed).stopAll();
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, instance::stopAll);
     }
 
     // MODIFIES: this
     // EFFECTS: plays sound file of given name in current playlist, if it exists
     public void play(String s) {
-        int result = lists.get(currentlyUsed).play(s);
-        if (result == Songs.PLAYSTATUS_NOTFOUND) {
-            System.out.println("Could not play " + s);
-        } else if (result == Songs.PLAYSTATUS_SUCCESSFUL) {
-            System.out.println(s + " is now playing.");
-        }
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            int result = instance.play(s);
+            if (result == Songs.PLAYSTATUS_NOTFOUND) {
+                System.out.println("Could not play " + s);
+            } else if (result == Songs.PLAYSTATUS_SUCCESSFUL) {
+                System.out.println(s + " is now playing.");
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds sound file of given name in current playlist to the end of its play queue
+    //          (or to the front, to be played next, if next)
+    public void enqueue(String s, boolean next) {
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, () -> {
+            if (!(next ? instance.enqueueNext(s) : instance.enqueue(s))) {
+                System.out.println("Could not queue " + s);
+            } else {
+                System.out.println(s + (next ? " will play next." : " has been queued."));
+            }
+        });
+    }
+
+    // EFFECTS: returns the paths of the songs queued in current playlist, in the order they will be played
+    public ArrayList<String> getQueue() {
+        return new ArrayList<>(lists.get(currentlyUsed).getSnapshot().getQueue());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the play queue of current playlist
+    public void clearQueue() {
+        System.out.println("Play queue has been cleared.");
+        Songs instance = lists.get(currentlyUsed);
+        player.submit(instance, instance::clearQueue);
     }
 
     // EFFECTS: returns active Songs instance
@@ -331,10 +639,13 @@ public class Playlists {
     // EFFECTS: stops all loops/sound files
     public void cleanup() {
         for (Songs s : lists.values()) {
-            s.noLoop();
-            s.disableLoopPlaylist();
-            s.stopAll();
+            player.submit(s, () -> {
+                s.noLoop();
+                s.disableLoopPlaylist();
+                s.stopAll();
+            });
         }
+        player.sync();
         System.out.println("All sounds stopped!");
     }
 
@@ -351,7 +662,8 @@ public class Playlists {
                 copyNum++;
                 testName = actualName + copyNum;
             }
-            lists.put(testName, s);
+            put(testName, s);
+            use(currentlyUsed, PlaylistEvent.CHANGED_PLAYLISTS);
         } catch (FileNotFoundException e) {
             System.out.println("File " + name + " not found.");
         } catch (ParsingException e) {
@@ -493,6 +805,16 @@ public class Playlists {
         return lists.get(currentlyUsed).getLength();
     }
 
+    // EFFECTS: returns the totals of the current playlist, e.g. its number of songs and length (convenience method)
+    public PlaylistStats getCurrentPlaylistStats() {
+        return lists.get(currentlyUsed).getStats();
+    }
+
+    // EFFECTS: gets a consistent snapshot of the current playlist (convenience method)
+    public PlaylistSnapshot getCurrentPlaylistSnapshot() {
+        return lists.get(currentlyUsed).getSnapshot();
+    }
+
     // EFFECTS: returns whether or not the current playlist is paused
     public boolean isCurrentPlaylistPaused() {
         return lists.get(currentlyUsed).isPaused();
@@ -10,6 +10,7 @@ public class TopAppPanel extends JPanel {
     public static final Color DEFAULT_BACKGROUND = new Color(255, 255, 255);
     private AppMenu am;
     private JLabel playlistName;
+    private JLabel playlistStats;
 
     // EFFECTS: Initializes TopAppPanel with AppMenu and PlaylistName
     public TopAppPanel() {
@@ -18,6 +19,7 @@ public class TopAppPanel extends JPanel {
         am = new AppMenu();
         add(am);
         playlistName = new JLabel("Current Playlist: " + Playlists.MAIN);
+        playlistStats = new JLabel();
     }
 
     // MODIFIES: this
@@ -28,6 +30,14 @@ public class TopAppPanel extends JPanel {
         am.update();
         add(am);
         add(playlistName);
+        add(playlistStats);
+        updateStats();
         validate();
     }
+
+    // MODIFIES: this
+    // EFFECTS: updates the number of songs and total length shown for the current playlist
+    public void updateStats() {
+        playlistStats.setText("(" + App.getActiveApp().getCurrentPlaylistStats().summary() + ")");
+    }
 }
@@ -0,0 +1,47 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for EntryPath and DirectoryNode classes
+public class EntryPathTest {
+
+    @Test
+    void testRoundTrip() {
+        String[] paths = {"./data/440Hz.wav", "/home/user/music/a.wav", "song.wav", "/top.wav", "a//b/c.wav",
+                "C:/Music/Album/01 - Intro.wav", "./data/"};
+        for (String path : paths) {
+            EntryPath entryPath = EntryPath.of(path);
+            assertEquals(path, entryPath.toString());
+            assertEquals(new File(path), entryPath.toFile());
+            assertEquals(entryPath, EntryPath.find(path));
+        }
+    }
+
+    @Test
+    void testSharedDirectories() {
+        EntryPath first = EntryPath.of("/shared/music/Album/01.wav");
+        EntryPath second = EntryPath.of("/shared/music/Album/02.wav");
+        EntryPath other = EntryPath.of("/shared/music/Other/01.wav");
+        assertSame(first.getDirectory(), second.getDirectory());
+        assertSame(first.getDirectory().getParent(), other.getDirectory().getParent());
+        assertEquals("/shared/music/Album", first.getDirectory().getPath());
+        assertNotEquals(first, second);
+        assertNotEquals(first, other);
+        assertEquals(first, EntryPath.of("/shared/music/Album/01.wav"));
+        assertEquals(first.hashCode(), EntryPath.of("/shared/music/Album/01.wav").hashCode());
+        assertEquals("", DirectoryNode.ROOT.getPath());
+        assertEquals("01.wav", first.getFileName());
+        assertEquals("x.wav", EntryPath.of("x.wav").getFileName());
+    }
+
+    @Test
+    void testFindUnknownDirectory() {
+        assertNull(EntryPath.find("/never/added/before/x.wav"));
+        assertNull(DirectoryNode.find("/never/added"));
+        assertNotNull(EntryPath.find("/never.wav"));
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for EntryTree class
+public class EntryTreeTest {
+
+    @Test
+    void testEmpty() {
+        EntryTree<String> tree = EntryTree.empty();
+        assertTrue(tree.isEmpty());
+        assertEquals(0, tree.size());
+        assertEquals(-1, tree.indexOf(5));
+        assertFalse(tree.iterator().hasNext());
+        try {
+            tree.get(0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testInsertInLabelOrder() {
+        EntryTree<String> tree = EntryTree.<String>empty().insert(20, "b").insert(10, "a").insert(30, "c");
+        assertEquals(3, tree.size());
+        assertEquals("a", tree.get(0));
+        assertEquals(30, tree.labelAt(2));
+        assertEquals(1, tree.indexOf(20));
+        assertEquals(-1, tree.indexOf(25));
+        assertEquals(Arrays.asList("a", "b", "c"), tree.subList(0, 3));
+        try {
+            tree.insert(20, "d");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testOldVersionsUnchanged() {
+        EntryTree<String> first = EntryTree.<String>empty().insert(1, "a").insert(2, "b");
+        EntryTree<String> second = first.insert(3, "c").remove(1);
+        assertEquals(Arrays.asList("a", "b"), first.subList(0, 2));
+        assertEquals(Arrays.asList("b", "c"), second.subList(0, 2));
+        assertSame(second, second.remove(42));
+    }
+
+    @Test
+    void testAgainstList() {
+        Random random = new Random(7);
+        EntryTree<Integer> tree = EntryTree.empty();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long label = random.nextInt(1000000);
+            if (expected.contains(label)) {
+                tree = tree.remove(label);
+                expected.remove(label);
+            } else {
+                tree = tree.insert(label, (int) label);
+                int at = 0;
+                while (at < expected.size() && expected.get(at) < label) {
+                    at++;
+                }
+                expected.add(at, label);
+            }
+        }
+        assertEquals(expected.size(), tree.size());
+        int i = 0;
+        for (int value : tree) {
+            assertEquals((long) expected.get(i), value);
+            assertEquals(i, tree.indexOf(expected.get(i)));
+            i++;
+        }
+        int from = expected.size() / 3;
+        int to = 2 * expected.size() / 3;
+        assertEquals(expected.size() - (to - from), tree.removeRange(from, to).size());
+        assertEquals((long) expected.get(to), tree.removeRange(from, to).labelAt(from));
+        assertEquals(to - from, tree.subList(from, to).size());
+        assertEquals((int) (long) expected.get(from), (int) tree.subList(from, to).get(0));
+    }
+
+    @Test
+    void testHundredThousandMoves() {
+        EntryTree<Integer> tree = EntryTree.empty();
+        for (int i = 0; i < 100000; i++) {
+            tree = tree.insert(i * 1024L, i);
+        }
+        Random random = new Random(3);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10000; i++) {
+            int from = random.nextInt(tree.size());
+            Integer value = tree.get(from);
+            long label = tree.labelAt(from);
+            tree = tree.remove(label).insert(label + 1, value);
+        }
+        assertTrue(System.nanoTime() - start < 2000000000L);
+        assertEquals(100000, tree.size());
+    }
+
+    @Test
+    void testOf() {
+        List<Integer> values = new ArrayList<>();
+        EntryTree<Integer> inserted = EntryTree.empty();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i * 3);
+            inserted = inserted.insert(i * 10L, i * 3);
+        }
+        EntryTree<Integer> built = EntryTree.of(values, 10);
+        assertEquals(1000, built.size());
+        for (int i = 0; i < 1000; i += 37) {
+            assertEquals(i * 3, (int) built.get(i));
+            assertEquals(i * 10L, built.labelAt(i));
+            assertEquals(i, built.indexOf(i * 10L));
+        }
+        assertEquals(values, built.subList(0, 1000));
+        assertEquals(inserted.subList(0, 1000), built.insert(5, -1).remove(5).subList(0, 1000));
+        assertTrue(EntryTree.of(new ArrayList<>(), 1).isEmpty());
+        try {
+            EntryTree.of(values, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for IntRingBuffer class
+public class IntRingBufferTest {
+    private IntRingBuffer ring;
+
+    @BeforeEach
+    void runBefore() {
+        ring = new IntRingBuffer();
+    }
+
+    @Test
+    void testEmpty() {
+        assertTrue(ring.isEmpty());
+        assertEquals(0, ring.size());
+        assertEquals(IntRingBuffer.EMPTY, ring.peekFirst());
+        assertEquals(IntRingBuffer.EMPTY, ring.pollFirst());
+        assertEquals(IntRingBuffer.EMPTY, ring.pollLast());
+        try {
+            ring.get(0);
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testBothEnds() {
+        ring.addLast(2);
+        ring.addLast(3);
+        ring.addFirst(1);
+        assertEquals(3, ring.size());
+        assertEquals(1, ring.peekFirst());
+        assertEquals(2, ring.get(1));
+        assertEquals(3, ring.pollLast());
+        assertEquals(1, ring.pollFirst());
+        assertEquals(2, ring.pollFirst());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void testGrowsAcrossWrapAround() {
+        for (int i = 0; i < 10; i++) {
+            ring.addLast(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, ring.pollFirst());
+        }
+        for (int i = 10; i < 100; i++) {
+            ring.addLast(i);
+        }
+        ring.addFirst(4);
+        assertEquals(96, ring.size());
+        for (int i = 4; i < 100; i++) {
+            assertEquals(i, ring.get(i - 4));
+        }
+        ring.clear();
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void testBounded() {
+        ring = new IntRingBuffer(20);
+        for (int i = 0; i < 50; i++) {
+            ring.addLast(i);
+        }
+        assertEquals(20, ring.size());
+        assertEquals(30, ring.peekFirst());
+        ring.addFirst(29);
+        assertEquals(20, ring.size());
+        assertEquals(29, ring.get(0));
+        assertEquals(48, ring.get(19));
+        try {
+            new IntRingBuffer(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
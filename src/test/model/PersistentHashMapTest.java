@@ -0,0 +1,138 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for PersistentHashMap class
+public class PersistentHashMapTest {
+    private PersistentHashMap<Integer, String> map;
+
+    // Represents a key whose hash is the same as that of every other Colliding key
+    private static class Colliding {
+        private final int value;
+
+        // EFFECTS: initializes a key of given value
+        Colliding(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @BeforeEach
+    void runBefore() {
+        map = PersistentHashMap.empty();
+    }
+
+    @Test
+    void testEmpty() {
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get(1));
+        assertNull(map.get(null));
+        assertFalse(map.containsKey(1));
+        assertSame(map, map.remove(1));
+        try {
+            map.put(null, "a");
+            fail();
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testPutGet() {
+        PersistentHashMap<Integer, String> one = map.put(1, "a");
+        PersistentHashMap<Integer, String> replaced = one.put(1, "b");
+        assertEquals(1, one.size());
+        assertEquals("a", one.get(1));
+        assertEquals(1, replaced.size());
+        assertEquals("b", replaced.get(1));
+        assertTrue(map.isEmpty()); // old versions are unchanged
+        assertNull(one.get(2));
+    }
+
+    @Test
+    void testManyKeys() {
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(50000);
+            expected.put(key, "v" + i);
+            map = map.put(key, "v" + i);
+        }
+        PersistentHashMap<Integer, String> full = map;
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(50000);
+            expected.remove(key);
+            map = map.remove(key);
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 50000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertTrue(full.size() > map.size());
+    }
+
+    @Test
+    void testCollisions() {
+        PersistentHashMap<Colliding, Integer> colliding = PersistentHashMap.empty();
+        for (int i = 0; i < 5; i++) {
+            colliding = colliding.put(new Colliding(i), i);
+        }
+        colliding = colliding.put(new Colliding(2), 20);
+        assertEquals(5, colliding.size());
+        assertEquals(20, (int) colliding.get(new Colliding(2)));
+        PersistentHashMap<Colliding, Integer> fewer = colliding.remove(new Colliding(0)).remove(new Colliding(3));
+        assertEquals(3, fewer.size());
+        assertNull(fewer.get(new Colliding(0)));
+        assertEquals(4, (int) fewer.get(new Colliding(4)));
+        assertEquals(0, (int) colliding.get(new Colliding(0)));
+        assertNull(fewer.get(new Colliding(9)));
+    }
+
+    @Test
+    void testOf() {
+        List<Integer> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add(i * 7);
+            values.add("v" + i);
+        }
+        map = PersistentHashMap.of(keys, values);
+        assertEquals(5000, map.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("v" + i, map.get(i * 7));
+        }
+        assertNull(map.get(1));
+        assertEquals(4999, map.remove(0).size());
+        assertTrue(PersistentHashMap.of(new ArrayList<Integer>(), new ArrayList<String>()).isEmpty());
+        PersistentHashMap<Colliding, Integer> colliding = PersistentHashMap.of(
+                Arrays.asList(new Colliding(1), new Colliding(2)), Arrays.asList(1, 2));
+        assertEquals(2, (int) colliding.get(new Colliding(2)));
+        try {
+            PersistentHashMap.of(Arrays.asList(1, 2, 1), Arrays.asList("a", "b", "c"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
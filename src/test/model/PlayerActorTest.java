@@ -0,0 +1,92 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for PlayerActor class
+public class PlayerActorTest {
+    private PlayerActor actor;
+    private List<Integer> log;
+
+    @BeforeEach
+    void runBefore() {
+        actor = new PlayerActor();
+        log = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Test
+    void testRunsInOrder() {
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            actor.submit(this, () -> log.add(n));
+        }
+        actor.sync();
+        assertEquals(100, log.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, log.get(i));
+        }
+        assertEquals(101, actor.getCommandsRun());
+        assertEquals(0, actor.getCommandsCoalesced());
+        assertEquals(0, actor.getQueueLength());
+        assertTrue(actor.getMaxLatencyMicros() >= actor.getAverageLatencyMicros());
+    }
+
+    @Test
+    void testCoalescing() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        actor.submit(this, () -> await(blocked));
+        Object other = new Object();
+        actor.submit(this, PlayerActor.CMD_VOLUME, () -> log.add(1));
+        actor.submit(this, PlayerActor.CMD_VOLUME, () -> log.add(2));
+        actor.submit(other, PlayerActor.CMD_VOLUME, () -> log.add(3));
+        actor.submit(this, PlayerActor.CMD_SEEK, () -> log.add(4));
+        actor.submit(this, () -> log.add(5));
+        actor.submit(this, PlayerActor.CMD_SEEK, () -> log.add(6));
+        actor.submit(this, PlayerActor.CMD_SEEK, () -> log.add(7));
+        blocked.countDown();
+        actor.sync();
+        assertEquals(5, log.size());
+        assertEquals(2, log.get(0));
+        assertEquals(3, log.get(1));
+        assertEquals(4, log.get(2));
+        assertEquals(5, log.get(3));
+        assertEquals(7, log.get(4));
+        assertEquals(2, actor.getCommandsCoalesced());
+    }
+
+    @Test
+    void testCall() {
+        assertFalse(actor.isPlayerThread());
+        assertEquals(42, (int) actor.call(() -> 42));
+        assertTrue(actor.call(actor::isPlayerThread));
+        assertEquals(7, (int) actor.call(() -> actor.call(() -> 7))); // runs inline on the player thread
+        try {
+            actor.call(() -> {
+                throw new IllegalArgumentException();
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        actor.submit(this, () -> {
+            throw new IllegalStateException("reported, not fatal");
+        });
+        assertEquals(1, (int) actor.call(() -> 1));
+    }
+
+    // EFFECTS: waits for the latch to be counted down
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            fail();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for PlaylistStats class
+public class PlaylistStatsTest {
+    private PlaylistStats stats;
+    private SoundFile first;
+    private SoundFile second;
+
+    @BeforeEach
+    void runBefore() throws IOException, UnsupportedAudioFileException {
+        stats = new PlaylistStats();
+        first = new SoundFile("./data/440Hz.wav");
+        second = new SoundFile("./data/cmajor.wav");
+    }
+
+    @Test
+    void testEmpty() {
+        assertEquals(0, stats.getTrackCount());
+        assertEquals(0, stats.getTotalMicros());
+        assertEquals(0, stats.getTotalBytes());
+        assertTrue(stats.getTypeCounts().isEmpty());
+        assertEquals(0, stats.getTypeCount("wav"));
+        assertEquals("0 tracks, 0:00:00", stats.summary());
+    }
+
+    @Test
+    void testAddRemove() {
+        stats.add(first);
+        stats.add(second);
+        assertEquals(2, stats.getTrackCount());
+        assertEquals(first.length() + second.length(), stats.getTotalMicros());
+        assertEquals(first.getByteLength() + second.getByteLength(), stats.getTotalBytes());
+        assertTrue(first.getByteLength() > 0);
+        assertEquals(2, stats.getTypeCount("wav"));
+        float rate = first.getFormat().getSampleRate();
+        int sameRate = rate == second.getFormat().getSampleRate() ? 2 : 1;
+        assertEquals(sameRate, stats.getSampleRateCount(rate));
+        PlaylistStats copy = stats.copy();
+        stats.remove(first);
+        assertEquals(1, stats.getTrackCount());
+        assertEquals(second.length(), stats.getTotalMicros());
+        assertEquals(sameRate - 1, stats.getSampleRateCount(rate));
+        assertFalse(stats.getSampleRateCounts().containsValue(0));
+        assertEquals(2, copy.getTrackCount());
+        try {
+            copy.getTypeCounts().put("au", 1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        stats.clear();
+        assertEquals(0, stats.getTotalBytes());
+        assertTrue(stats.getSampleRateCounts().isEmpty());
+    }
+
+    @Test
+    void testSummary() {
+        stats.add(first);
+        assertTrue(stats.summary().startsWith("1 track, 0:00:"));
+        assertEquals("0:00:59", PlaylistStats.convertMicrosecondsToDuration(59999999));
+        assertEquals("87:12:03", PlaylistStats.convertMicrosecondsToDuration((87 * 3600 + 12 * 60 + 3) * 1000000L));
+    }
+}
@@ -0,0 +1,123 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for SearchIndex class
+public class SearchIndexTest {
+    private static final String ROCK = "/music/Rock/Queen - Bohemian Rhapsody.wav";
+    private static final String JAZZ = "/music/Jazz/Miles Davis - So What.wav";
+    private static final String ROCK2 = "/music/Rock/Queen - Somebody To Love.au";
+    private SearchIndex index;
+
+    @BeforeEach
+    void runBefore() {
+        index = new SearchIndex();
+        assertTrue(index.add(EntryPath.of(ROCK)));
+        assertTrue(index.add(EntryPath.of(JAZZ)));
+        assertTrue(index.add(EntryPath.of(ROCK2)));
+        index.publish();
+    }
+
+    @Test
+    void testWordsOf() {
+        assertEquals(Arrays.asList("music", "rock", "queen", "bohemian", "rhapsody", "wav"),
+                SearchIndex.wordsOf(ROCK));
+        assertEquals(Collections.singletonList("a1"), SearchIndex.wordsOf("--A1 a1!"));
+        assertTrue(SearchIndex.wordsOf(" /-. ").isEmpty());
+    }
+
+    @Test
+    void testSubstring() {
+        assertEquals(Arrays.asList(ROCK, ROCK2), search("QUEEN", false));
+        assertEquals(Collections.singletonList(ROCK), search("hemia", false));
+        assertEquals(Collections.singletonList(ROCK2), search("queen love", false));
+        assertEquals(Arrays.asList(ROCK, JAZZ), search("wav", false));
+        assertEquals(Arrays.asList(JAZZ, ROCK2), search("so", false)); // short words match starts of words
+        assertTrue(search("queen jazz", false).isEmpty());
+        assertTrue(search("xyz", false).isEmpty());
+        assertTrue(search("", false).isEmpty());
+    }
+
+    @Test
+    void testPrefix() {
+        assertEquals(Arrays.asList(ROCK, ROCK2), search("que", true));
+        assertTrue(search("ueen", true).isEmpty());
+        assertEquals(Collections.singletonList(JAZZ), search("mi da", true));
+        assertEquals(3, search("m", true).size());
+    }
+
+    @Test
+    void testPublish() {
+        for (int i = 0; i < 20; i++) {
+            index.add(EntryPath.of("/music/Rock/Queen - Track " + i + ".wav")); // grows the posting arrays
+        }
+        assertEquals(3, index.size());
+        assertEquals(Arrays.asList(ROCK, ROCK2), search("queen", false));
+        assertTrue(search("track", true).isEmpty());
+        assertTrue(index.publish() > 0);
+        assertEquals(23, index.size());
+        assertEquals(22, search("queen", false).size());
+        assertEquals(20, search("track", true).size());
+        assertEquals(0, index.publish());
+    }
+
+    @Test
+    void testPublishCostAfterLargeIndex() {
+        for (int i = 0; i < 200000; i++) {
+            index.add(EntryPath.of("/library/Artist " + (i % 1000) + "/Track " + i + ".wav"));
+        }
+        index.publish();
+        index.add(EntryPath.of("/library/Artist 7/Track new.wav"));
+        assertTrue(index.publish() <= 10); // the lists of its 5 words and of the trigrams of "new"
+        assertEquals(Collections.singletonList("/library/Artist 7/Track new.wav"), search("new", false));
+        assertEquals(200004, index.size());
+    }
+
+    @Test
+    void testLimitAndLive() {
+        assertEquals(Collections.singletonList(ROCK), index.search("music", false, 1, p -> true));
+        assertEquals(Collections.singletonList(ROCK2), index.search("queen", false, 5, p -> !p.equals(ROCK)));
+        assertFalse(index.add(EntryPath.of(ROCK)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testManyEntries() {
+        for (int i = 0; i < 20000; i++) {
+            index.add(EntryPath.of("/library/Artist " + (i % 100) + "/Track " + i + ".wav"));
+        }
+        index.publish();
+        assertEquals(Arrays.asList("/library/Artist 34/Track 1234.wav", "/library/Artist 34/Track 11234.wav"),
+                search("1234 artist 34", false));
+        assertEquals(11, search("track 1999", true).size()); // 1999 and 19990 to 19999
+        assertEquals(50, index.search("wav", false, 50, p -> true).size());
+    }
+
+    @Test
+    void testSongs() {
+        Songs songs = new Songs();
+        songs.add("./data/440Hz.wav");
+        SearchIndex songIndex = new SearchIndex();
+        songs.setSearchIndex(songIndex);
+        songs.add("./data/cmajor.wav");
+        songIndex.publish();
+        assertEquals(2, songIndex.size());
+        assertEquals(Collections.singletonList("./data/cmajor.wav"),
+                songIndex.search("major", false, 10, songs::contains));
+        songs.remove("./data/cmajor.wav");
+        assertTrue(songIndex.search("major", false, 10, songs::contains).isEmpty());
+        assertEquals("./data/440Hz.wav", songs.list());
+    }
+
+    // EFFECTS: returns all matches of query
+    private List<String> search(String query, boolean prefix) {
+        return index.search(query, prefix, Integer.MAX_VALUE, p -> true);
+    }
+}
@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for ShuffleOrder class
+public class ShuffleOrderTest {
+
+    @Test
+    void testBijection() {
+        for (int size : new int[]{0, 1, 2, 3, 100, 1000, 4097}) {
+            ShuffleOrder order = new ShuffleOrder(size * 31L, size);
+            long domain = order.getDomainSize();
+            assertTrue(domain >= 2L * size);
+            assertTrue(domain < 4L * size || size <= 1);
+            boolean[] seen = new boolean[(int) domain];
+            for (long p = 0; p < domain; p++) {
+                int value = order.valueAt(p);
+                assertFalse(seen[value]);
+                seen[value] = true;
+                assertEquals(p, order.positionOf(value));
+            }
+        }
+    }
+
+    @Test
+    void testSeeds() {
+        ShuffleOrder order = new ShuffleOrder(7, 1000);
+        ShuffleOrder same = new ShuffleOrder(7, 1000);
+        ShuffleOrder next = order.next(1000);
+        int moved = 0;
+        for (int p = 0; p < 1000; p++) {
+            assertEquals(order.valueAt(p), same.valueAt(p));
+            if (order.valueAt(p) != next.valueAt(p)) {
+                moved++;
+            }
+        }
+        assertTrue(moved > 900);
+        assertNotEquals(order.getSeed(), next.getSeed());
+        assertEquals(next.getSeed(), same.next(5).getSeed());
+    }
+
+    @Test
+    void testNotInOrder() {
+        ShuffleOrder order = new ShuffleOrder(1, 1000);
+        int ascending = 0;
+        for (int p = 1; p < 1000; p++) {
+            if (order.valueAt(p) == order.valueAt(p - 1) + 1) {
+                ascending++;
+            }
+        }
+        assertTrue(ascending < 50);
+    }
+
+    @Test
+    void testBounds() {
+        ShuffleOrder order = new ShuffleOrder(3, 10);
+        assertTrue(order.covers(19));
+        assertFalse(order.covers(-1));
+        assertFalse(order.covers((int) order.getDomainSize()));
+        try {
+            order.valueAt(order.getDomainSize());
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            order.positionOf(-1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            new ShuffleOrder(0, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
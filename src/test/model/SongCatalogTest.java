@@ -0,0 +1,115 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for SongCatalog and CatalogEntry classes
+public class SongCatalogTest {
+    private static final long MAX_BYTES_FOR_MILLION = 200L * 1024 * 1024;
+    private SongCatalog catalog;
+
+    @BeforeEach
+    void runBefore() {
+        catalog = new SongCatalog();
+    }
+
+    @Test
+    void testAddFiles() {
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, catalog.add(SongsTest.file1));
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, catalog.add(SongsTest.file3));
+        assertEquals(Songs.ADDSTATUS_EXISTS, catalog.add(SongsTest.file1));
+        assertEquals(Songs.ADDSTATUS_UNSUPPORTED, catalog.add(SongsTest.file4));
+        assertEquals(Songs.ADDSTATUS_ERROR, catalog.add("./data/lolmaoecksdee.wav"));
+        assertEquals(2, catalog.getLength());
+        assertEquals(1, catalog.indexOf(SongsTest.file3));
+        CatalogEntry entry = catalog.get(0);
+        assertEquals(SongsTest.file1, entry.getString());
+        assertTrue(entry.length() > 0);
+        assertEquals(44100, entry.getFormat().getSampleRate(), SongsTest.ERROR);
+        assertFalse(entry.isLooping());
+        try {
+            catalog.get(2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testAddSameLatestPathTwice() throws Exception {
+        SoundFile sf = new SoundFile(SongsTest.file1);
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, catalog.add(sf));
+        assertEquals(Songs.ADDSTATUS_EXISTS, catalog.add(sf));
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, catalog.add("x.wav", 1000, format, 0));
+        assertEquals(Songs.ADDSTATUS_EXISTS, catalog.add("x.wav", 1000, format, 0));
+        assertEquals(2, catalog.getLength());
+    }
+
+    @Test
+    void testToSoundFile() throws Exception {
+        catalog.add(SongsTest.file1);
+        catalog.setFlags(0, SongCatalog.FLAG_LOOPING | SongCatalog.FLAG_MUTED);
+        SoundFile sf = catalog.get(0).toSoundFile();
+        assertEquals(SongsTest.file1, sf.getString());
+        assertTrue(sf.isLooping());
+        assertTrue(sf.isMuted());
+        assertEquals(catalog.getDuration(0), sf.length());
+        SongCatalog copy = new SongCatalog();
+        copy.add(sf);
+        assertEquals(SongCatalog.FLAG_LOOPING | SongCatalog.FLAG_MUTED, copy.getFlags(0));
+        sf.release();
+    }
+
+    @Test
+    void testRemove() {
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
+        for (int i = 0; i < 100; i++) {
+            catalog.add("song" + i, i, format, 0);
+        }
+        assertTrue(catalog.remove("song10"));
+        assertFalse(catalog.remove("song10"));
+        assertEquals(99, catalog.getLength());
+        assertEquals(-1, catalog.indexOf("song10"));
+        assertEquals(10, catalog.indexOf("song11"));
+        assertEquals(11, catalog.getDuration(10));
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, catalog.add("song10", 10, format, 0));
+        assertEquals(99, catalog.indexOf("song10"));
+        int i = 0;
+        for (CatalogEntry entry : catalog) {
+            assertEquals(i++, entry.getIndex());
+        }
+        assertEquals(100, i);
+    }
+
+    @Test
+    void testMillionEntryFootprint() {
+        AudioFormat[] formats = {new AudioFormat(44100, 16, 2, true, false), new AudioFormat(48000, 24, 2, true,
+                false)};
+        long before = usedHeap();
+        for (int i = 0; i < 1000000; i++) {
+            String path = "./music/Artist " + (i / 1000) + "/Album " + (i / 10) + "/Track " + i + ".wav";
+            catalog.add(path, 180000000L + i, formats[i % 2], i % 3 == 0 ? SongCatalog.FLAG_LOOPING : 0);
+        }
+        long used = usedHeap() - before;
+        assertEquals(1000000, catalog.getLength());
+        assertTrue(used < MAX_BYTES_FOR_MILLION, "1M songs used " + used / 1024 / 1024 + " MB");
+        assertEquals("./music/Artist 123/Album 12345/Track 123456.wav", catalog.getString(123456));
+        assertEquals(123456, catalog.indexOf("./music/Artist 123/Album 12345/Track 123456.wav"));
+        assertEquals(48000, catalog.get(999999).getFormat().getSampleRate(), SongsTest.ERROR);
+        assertTrue(catalog.get(3).isLooping());
+    }
+
+    // EFFECTS: returns the bytes of heap in use after collecting garbage
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
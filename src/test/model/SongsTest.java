@@ -5,6 +5,12 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SongsTest {
@@ -105,6 +111,76 @@ public class SongsTest {
         assertFalse(songs.isPlaylistLooping());
     }
 
+    @Test
+    void testGapless() {
+        songs.add(file1);
+        songs.add(file3);
+        assertFalse(songs.isGapless());
+        songs.setGapless(true);
+        assertTrue(songs.isGapless());
+        songs.play(file1);
+        delay(DELAY);
+        assertEquals(0, songs.indexPlaying());
+        assertEquals(-1, songs.get(0).getLastTransitionGap());
+        delay((long) (songs.get(0).length() / 1000.0));
+        assertEquals(1, songs.indexPlaying());
+        assertEquals(1, songs.getLastIndexPlayed());
+        assertEquals(0, songs.get(1).getLastTransitionGap()); // no frames between the two tracks
+        assertEquals(0, songs.get(1).getTransitionUnderruns());
+        assertFalse(songs.get(0).isPlaying());
+        delay((long) (songs.get(1).length() / 1000.0) + DELAY);
+        assertEquals(-1, songs.indexPlaying()); // not looping the playlist, so it stops after the last track
+        songs.setGapless(false);
+    }
+
+    @Test
+    void testGaplessAfterRemove() {
+        songs.add(file1);
+        songs.add(file2);
+        songs.add(file3);
+        songs.setGapless(true);
+        songs.play(file1);
+        delay(DELAY);
+        songs.remove(file2); // was queued to follow file1
+        delay((long) (songs.get(0).length() / 1000.0));
+        assertEquals(1, songs.indexPlaying());
+        assertEquals(file3, songs.get(songs.indexPlaying()).getString());
+        assertFalse(songs.get(0).isPlaying());
+        songs.remove(file3); // the current song, so nothing follows it
+        songs.setGapless(false);
+    }
+
+    @Test
+    void testGaplessAfterAdd() {
+        songs.add(file1);
+        songs.setGapless(true);
+        songs.play(file1);
+        delay(DELAY);
+        songs.add(file3); // follows the current song, which was the last one
+        delay((long) (songs.get(0).length() / 1000.0));
+        assertEquals(1, songs.indexPlaying());
+        assertEquals(0, songs.get(1).getLastTransitionGap());
+        songs.setGapless(false);
+    }
+
+    @Test
+    void testCrossfade() {
+        songs.add(file1);
+        songs.add(file3);
+        songs.setCrossfade(DELAY);
+        assertEquals(DELAY, songs.getCrossfade());
+        songs.play(file1);
+        delay(DELAY);
+        songs.playNext();
+        assertEquals(0, songs.indexPlaying()); // still fading out
+        delay(DELAY * 2);
+        assertEquals(1, songs.indexPlaying());
+        assertEquals(1, songs.getLastIndexPlayed());
+        assertFalse(songs.get(0).isPlaying());
+        songs.setCrossfade(-5);
+        assertEquals(0, songs.getCrossfade());
+    }
+
     @Test
     void testLoopEmptyPlaylist() {
         songs.loopPlaylist();
@@ -147,6 +223,24 @@ public class SongsTest {
         assertFalse(songs.isPlaylistLooping());
     }
 
+    @Test
+    void testLoopPlaylistPausedOrStopped() {
+        songs.add(file1);
+        songs.add(file3);
+        songs.loopPlaylist();
+        delay(DELAY);
+        assertEquals(0, songs.indexPlaying());
+        assertTrue(songs.pause());
+        delay((long) (songs.get(0).length() / 1000.0) + DELAY);
+        assertEquals(-1, songs.indexPlaying()); // only the end of a song advances the playlist
+        assertTrue(songs.isPaused());
+        songs.play(file3);
+        songs.stopAll();
+        delay((long) (songs.get(1).length() / 1000.0) + DELAY);
+        assertEquals(-1, songs.indexPlaying());
+        songs.disableLoopPlaylist();
+    }
+
     // EFFECTS: delays execution by a set number of milliseconds
     void delay(long amount) {
         try {
@@ -386,4 +480,429 @@ public class SongsTest {
             // it's supposed to happen, since size == 0
         }
     }
+
+    @Test
+    void testPathIndex() {
+        songs.add(file1);
+        songs.add(file2);
+        songs.add(file3);
+        assertEquals(Songs.ADDSTATUS_EXISTS, songs.add(file2));
+        assertEquals(3, songs.getLength());
+        assertEquals(1, songs.indexOf(file2));
+        assertTrue(songs.contains(file3));
+        assertTrue(songs.remove(file1));
+        assertFalse(songs.contains(file1));
+        assertEquals(-1, songs.indexOf(file1));
+        assertEquals(0, songs.indexOf(file2));
+        assertEquals(1, songs.indexOf(file3));
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, songs.add(file1));
+        assertEquals(2, songs.indexOf(file1));
+        assertEquals(file1, songs.get(songs.indexOf(file1)).getString());
+        songs.clear();
+        assertFalse(songs.contains(file2));
+        assertEquals(-1, songs.indexOf(file3));
+    }
+
+    @Test
+    void testPlaybackState() {
+        songs.add(file1);
+        songs.add(file2);
+        songs.add(file3);
+        assertEquals(Songs.STATE_STOPPED, songs.getState());
+        songs.play(file3);
+        assertEquals(Songs.STATE_PLAYING, songs.getState());
+        assertEquals(2, songs.indexPlaying());
+        assertTrue(songs.pause());
+        assertEquals(Songs.STATE_PAUSED, songs.getState());
+        assertTrue(songs.isPaused());
+        assertEquals(-1, songs.indexPlaying());
+        assertEquals(-1, songs.getCurrentPosition());
+        assertFalse(songs.pause());
+        songs.play(file3);
+        assertEquals(2, songs.indexPlaying());
+        assertTrue(songs.remove(file1));
+        assertEquals(1, songs.indexPlaying());
+        assertEquals(1, songs.getLastIndexPlayed());
+        assertTrue(songs.remove(file3));
+        assertEquals(Songs.STATE_STOPPED, songs.getState());
+        assertEquals(-1, songs.indexPlaying());
+        assertEquals(-1, songs.getLastIndexPlayed());
+        songs.play(file2);
+        delay((long) Math.floor(songs.get(0).length() / 1000.0) + DELAY);
+        assertEquals(Songs.STATE_STOPPED, songs.getState());
+        assertEquals(0, songs.getLastIndexPlayed());
+    }
+
+    @Test
+    void testAddAll() {
+        songs.add(file2);
+        List<String> paths = Arrays.asList(file1, file2, file4, "./data/lolmaoecksdee.wav", file3, file1);
+        int[] statuses = songs.addAll(paths);
+        assertEquals(6, statuses.length);
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, statuses[0]);
+        assertEquals(Songs.ADDSTATUS_EXISTS, statuses[1]);
+        assertEquals(Songs.ADDSTATUS_UNSUPPORTED, statuses[2]);
+        assertEquals(Songs.ADDSTATUS_ERROR, statuses[3]);
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, statuses[4]);
+        assertEquals(Songs.ADDSTATUS_EXISTS, statuses[5]);
+        assertEquals(3, songs.getLength());
+        assertEquals(file2, songs.getString(0));
+        assertEquals(file1, songs.getString(1));
+        assertEquals(file3, songs.getString(2));
+        assertEquals(2, songs.indexOf(file3));
+        assertEquals(0, songs.addAll(new ArrayList<>()).length);
+    }
+
+    @Test
+    void testAddProbed() {
+        songs.add(file2);
+        List<String> paths = Arrays.asList(file1, file2, file4, "./data/lolmaoecksdee.wav", file1);
+        List<CompletableFuture<SoundFile>> probes = Songs.probe(paths);
+        assertNull(probes.get(4));
+        CompletableFuture.allOf(probes.get(0), probes.get(1), probes.get(2), probes.get(3)).handle((v, e) -> v).join();
+        assertTrue(probes.get(2).isCompletedExceptionally());
+        assertTrue(probes.get(3).isCompletedExceptionally());
+        int[] statuses = songs.addProbed(paths, probes);
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, statuses[0]);
+        assertEquals(Songs.ADDSTATUS_EXISTS, statuses[1]);
+        assertEquals(Songs.ADDSTATUS_UNSUPPORTED, statuses[2]);
+        assertEquals(Songs.ADDSTATUS_ERROR, statuses[3]);
+        assertEquals(Songs.ADDSTATUS_EXISTS, statuses[4]);
+        assertEquals(2, songs.getLength());
+        assertEquals(file1, songs.getString(1));
+        assertTrue(songs.undo());
+        assertEquals(1, songs.getLength());
+    }
+
+    @Test
+    void testSnapshot() {
+        songs.add(file1);
+        songs.add(file2);
+        PlaylistSnapshot before = songs.getSnapshot();
+        songs.add(file3);
+        songs.play(file2);
+        songs.setVolume(-10);
+        assertEquals(2, before.getLength());
+        assertEquals(-1, before.indexPlaying());
+        assertEquals(0, before.getVolume());
+        PlaylistSnapshot playing = songs.getSnapshot();
+        assertEquals(3, playing.getLength());
+        assertEquals(1, playing.indexPlaying());
+        assertEquals(Songs.STATE_PLAYING, playing.getState());
+        assertEquals(-10, playing.getVolume());
+        int i = 0;
+        for (SoundFile sf : songs) {
+            songs.remove(sf.getString()); // does not affect the snapshot being iterated
+            i++;
+        }
+        assertEquals(3, i);
+        assertEquals(0, songs.getLength());
+        assertEquals(file3, playing.getString(2));
+        assertFalse(playing.isEmpty());
+        try {
+            playing.get(3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testQueueAndHistory() {
+        songs.add(file1);
+        songs.add(file2);
+        songs.add(file3);
+        assertFalse(songs.enqueue(file4));
+        assertFalse(songs.playPrevious());
+        songs.play(file1);
+        assertTrue(songs.enqueue(file3));
+        assertTrue(songs.enqueueNext(file2));
+        assertEquals(Arrays.asList(file2, file3), songs.getQueue());
+        songs.playNext();
+        assertEquals(1, songs.indexPlaying());
+        songs.playNext();
+        assertEquals(2, songs.indexPlaying());
+        assertTrue(songs.getQueue().isEmpty());
+        songs.playNext();
+        assertEquals(0, songs.indexPlaying());
+        assertTrue(songs.playPrevious());
+        assertEquals(2, songs.indexPlaying());
+        assertTrue(songs.playPrevious());
+        assertEquals(1, songs.indexPlaying());
+        assertEquals(Arrays.asList(file3, file1), songs.getQueue());
+        assertTrue(songs.remove(file3));
+        assertEquals(Arrays.asList(file1), songs.getQueue());
+        songs.playNext();
+        assertEquals(0, songs.indexPlaying());
+        assertTrue(songs.getQueue().isEmpty());
+        songs.enqueue(file2);
+        songs.clearQueue();
+        assertTrue(songs.getQueue().isEmpty());
+        songs.clear();
+        assertFalse(songs.playPrevious());
+    }
+
+    @Test
+    void testQueueInSnapshot() {
+        songs.add(file1);
+        songs.add(file2);
+        songs.add(file3);
+        songs.enqueue(file3);
+        PlaylistSnapshot before = songs.getSnapshot();
+        songs.enqueueNext(file2);
+        assertEquals(Arrays.asList(file3), before.getQueue());
+        assertEquals(Arrays.asList(file2, file3), songs.getSnapshot().getQueue());
+        songs.remove(file2);
+        assertEquals(Arrays.asList(file3), songs.getSnapshot().getQueue());
+        songs.undo();
+        assertEquals(Arrays.asList(file2, file3), songs.getSnapshot().getQueue());
+        songs.clearQueue();
+        assertTrue(songs.getSnapshot().getQueue().isEmpty());
+    }
+
+    @Test
+    void testShuffle() {
+        String file5 = "./data/1000 Hz.wav";
+        List<String> paths = Arrays.asList(file1, file2, file3, file5);
+        songs.addAll(paths);
+        songs.setShuffle(true, 42);
+        assertTrue(songs.isShuffling());
+        for (int cycle = 0; cycle < 3; cycle++) {
+            HashSet<Integer> seen = new HashSet<>();
+            int previous = -1;
+            for (int i = 0; i < paths.size(); i++) {
+                songs.playNext();
+                int current = songs.indexPlaying();
+                assertTrue(seen.add(current));
+                assertEquals(previous, songs.indexBefore(current));
+                previous = current;
+            }
+        }
+        songs.playNext();
+        String first = songs.get(songs.indexPlaying()).getString();
+        songs.playNext();
+        String second = songs.get(songs.indexPlaying()).getString();
+        assertTrue(songs.remove(first));
+        HashSet<String> played = new HashSet<>(Arrays.asList(first, second));
+        for (int i = 0; i < 2; i++) {
+            songs.playNext();
+            assertTrue(played.add(songs.get(songs.indexPlaying()).getString()));
+        }
+        songs.setShuffle(false);
+        assertFalse(songs.isShuffling());
+        assertEquals(songs.indexPlaying() - 1, songs.indexBefore(songs.indexPlaying()));
+    }
+
+    @Test
+    void testShuffleAfterManyRemoved() {
+        String file5 = "./data/1000 Hz.wav";
+        List<String> paths = Arrays.asList(file1, file2, file3, file5);
+        songs.setShuffle(true, 7);
+        for (int i = 0; i < 50; i++) {
+            songs.addAll(paths);
+            songs.clear();
+        }
+        songs.addAll(paths);
+        assertTrue(songs.getShuffleDomainSize() <= 16); // not sized by the 204 ids handed out
+        assertTrue(songs.remove(file1));
+        assertTrue(songs.remove(file2));
+        assertTrue(songs.remove(file3)); // removed keys now outnumber the songs
+        assertTrue(songs.getShuffleDomainSize() <= 2);
+        songs.playNext();
+        assertEquals(file5, songs.get(songs.indexPlaying()).getString());
+        assertTrue(songs.undo());
+        assertEquals(2, songs.getLength());
+        HashSet<Integer> seen = new HashSet<>(); // the restored song has a shuffle key again
+        for (int i = 0; i < 4; i++) {
+            songs.playNext();
+            seen.add(songs.indexPlaying());
+        }
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    void testReorder() {
+        String file5 = "./data/1000 Hz.wav";
+        songs.addAll(Arrays.asList(file1, file2, file3, file5));
+        songs.play(file3);
+        songs.move(2, 0);
+        assertEquals(Arrays.asList(file3, file1, file2, file5), paths());
+        assertEquals(0, songs.indexPlaying());
+        assertEquals(0, songs.indexOf(file3));
+        assertEquals(2, songs.indexOf(file2));
+        songs.swap(0, 3);
+        assertEquals(Arrays.asList(file5, file1, file2, file3), paths());
+        assertEquals(3, songs.indexPlaying());
+        songs.moveRange(0, 2, 2);
+        assertEquals(Arrays.asList(file2, file3, file5, file1), paths());
+        assertEquals(1, songs.getLastIndexPlayed());
+        for (int i = 0; i < 60; i++) {
+            songs.move(3, 1); // always into the same gap, until the labels have to be renumbered
+        }
+        assertEquals(Arrays.asList(file2, file3, file5, file1), paths());
+        assertEquals(file3, songs.getString(songs.indexPlaying()));
+        assertTrue(songs.remove(file2));
+        assertEquals(0, songs.indexPlaying());
+        assertEquals(Songs.ADDSTATUS_SUCCESSFUL, songs.insertAt(1, file2));
+        assertEquals(Arrays.asList(file3, file2, file5, file1), paths());
+        assertEquals(Songs.ADDSTATUS_EXISTS, songs.insertAt(0, file2));
+        try {
+            songs.moveRange(0, 2, 3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        assertEquals(4, songs.getLength());
+    }
+
+    @Test
+    void testListeners() {
+        PlayerActor player = PlayerActor.getInstance();
+        List<PlaylistEvent> events = new ArrayList<>();
+        PlaylistListener listener = events::add;
+        songs.addListener(listener);
+        player.call(() -> {
+            songs.add(file1);
+            songs.add(file2);
+            songs.setVolume(-10);
+            songs.play(file2);
+            return null;
+        });
+        player.sync();
+        assertEquals(1, events.size());
+        PlaylistEvent first = events.get(0);
+        assertSame(songs, first.getSource());
+        assertEquals(PlaylistEvent.CHANGED_ADDED | PlaylistEvent.CHANGED_VOLUME | PlaylistEvent.CHANGED_STARTED,
+                first.getChanges());
+        assertTrue(first.getBefore().isEmpty());
+        assertEquals(1, first.getAfter().indexPlaying());
+        player.call(() -> songs.remove(file2));
+        player.sync();
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).hasAny(PlaylistEvent.CHANGED_REMOVED));
+        assertTrue(events.get(1).hasAny(PlaylistEvent.CHANGED_FINISHED));
+        assertFalse(events.get(1).hasAny(PlaylistEvent.CHANGED_ADDED));
+        assertSame(first.getAfter(), events.get(1).getBefore());
+        songs.removeListener(listener);
+        player.call(() -> songs.add(file3));
+        player.sync();
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    void testStats() {
+        assertEquals(0, songs.getStats().getTrackCount());
+        songs.addAll(Arrays.asList(file1, file2, file4));
+        PlaylistStats stats = songs.getStats();
+        assertEquals(2, stats.getTrackCount());
+        assertEquals(songs.get(0).length() + songs.get(1).length(), stats.getTotalMicros());
+        assertEquals(2, stats.getTypeCount("wav"));
+        songs.setVolume(-5);
+        assertSame(stats, songs.getStats()); // not copied again unless songs are added or removed
+        songs.remove(file1);
+        assertEquals(1, songs.getStats().getTrackCount());
+        assertEquals(songs.get(0).getByteLength(), songs.getStats().getTotalBytes());
+        assertEquals(2, stats.getTrackCount());
+        songs.clear();
+        assertEquals(0, songs.getStats().getTotalMicros());
+        assertEquals(0, songs.getSnapshot().getStats().getTypeCount("wav"));
+    }
+
+    @Test
+    void testUndoRedo() {
+        assertFalse(songs.undo());
+        assertFalse(songs.redo());
+        songs.add(file1);
+        songs.add(file2);
+        songs.add(file3);
+        List<String> added = paths();
+        songs.swap(0, 2);
+        songs.remove(file2);
+        assertEquals(Arrays.asList(file3, file1), paths());
+        assertTrue(songs.undo());
+        assertEquals(Arrays.asList(file3, file2, file1), paths());
+        assertTrue(songs.undo());
+        assertEquals(added, paths());
+        assertEquals(3, songs.getStats().getTrackCount());
+        assertTrue(songs.redo());
+        assertTrue(songs.redo());
+        assertFalse(songs.redo());
+        assertEquals(Arrays.asList(file3, file1), paths());
+        assertEquals(2, songs.getSnapshot().getStats().getTrackCount());
+        songs.undo();
+        songs.move(0, 2); // a new edit forgets what was undone
+        assertFalse(songs.redo());
+        songs.clear();
+        assertEquals(0, songs.getLength());
+        assertTrue(songs.undo());
+        assertEquals(Arrays.asList(file2, file1, file3), paths());
+        assertTrue(songs.contains(file2));
+        assertEquals(Songs.PLAYSTATUS_SUCCESSFUL, songs.play(file2));
+    }
+
+    @Test
+    void testUndoKeepsPlaying() {
+        songs.add(file1);
+        songs.add(file2);
+        songs.play(file2);
+        songs.insertAt(0, file3);
+        assertEquals(2, songs.getLastIndexPlayed());
+        songs.undo(); // removes file3 in one step
+        assertEquals(Arrays.asList(file1, file2), paths());
+        assertEquals(1, songs.getLastIndexPlayed());
+        assertEquals(Songs.STATE_PLAYING, songs.getState());
+        songs.undo(); // removes file2, which was playing
+        assertEquals(-1, songs.getLastIndexPlayed());
+        assertEquals(Songs.STATE_STOPPED, songs.getState());
+        songs.mute();
+        songs.redo();
+        assertTrue(songs.get(1).isMuted());
+    }
+
+    @Test
+    void testSort() {
+        songs.add(file2);
+        songs.add(file1);
+        songs.add(file3);
+        songs.play(file1);
+        songs.sort(Songs.SORT_PATH);
+        assertEquals(Arrays.asList(file1, file3, file2), paths());
+        assertEquals(0, songs.getLastIndexPlayed());
+        assertEquals(Songs.STATE_PLAYING, songs.getState());
+        songs.sort(Songs.SORT_NAME | Songs.SORT_DESCENDING);
+        assertEquals(Arrays.asList(file2, file3, file1), paths());
+        assertEquals(2, songs.getLastIndexPlayed());
+        songs.sort(Songs.SORT_ADDED);
+        assertEquals(Arrays.asList(file2, file1, file3), paths());
+        songs.sort(Songs.SORT_DURATION);
+        for (int i = 1; i < songs.getLength(); i++) {
+            assertTrue(songs.get(i - 1).length() <= songs.get(i).length());
+        }
+        songs.sort(Songs.SORT_FORMAT, Songs.SORT_ADDED | Songs.SORT_DESCENDING); // all the same format
+        assertEquals(Arrays.asList(file3, file1, file2), paths());
+        assertEquals(file1, songs.get(songs.getLastIndexPlayed()).getString());
+        assertTrue(songs.undo());
+        assertTrue(songs.get(0).length() <= songs.get(1).length());
+        try {
+            songs.sort();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            songs.sort(42);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    // EFFECTS: returns the paths of the songs, in order
+    private List<String> paths() {
+        List<String> result = new ArrayList<>();
+        for (SoundFile sf : songs) {
+            result.add(sf.getString());
+        }
+        return result;
+    }
 }
@@ -91,6 +91,22 @@ public class SoundFileTest {
         }
     }
 
+    @Test
+    void testLazyOpen() {
+        assertFalse(sf.isOpen());
+        assertEquals(LENGTH1, sf.length());
+        assertEquals("0:03", sf.stringLength());
+        sf.setVolume((float) -10.0);
+        sf.mute();
+        assertFalse(sf.isOpen());
+        assertTrue(Math.abs(sf.getVolume() + 10.0) < ERROR);
+        assertTrue(sf.isMuted());
+        sf.play();
+        delay(DELAY);
+        assertTrue(sf.isOpen());
+        assertTrue(sf.isMuted());
+    }
+
     @Test
     void testLoop() {
         sf.loop();
@@ -0,0 +1,42 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for StringTable class
+public class StringTableTest {
+
+    @Test
+    void testIntern() {
+        StringTable table = new StringTable();
+        assertEquals(0, table.intern("a"));
+        assertEquals(1, table.intern("./data/440Hz.wav"));
+        assertEquals(0, table.intern("a"));
+        assertEquals(2, table.intern("\u00fcn\u00efc\u00f6d\u00e9 \u266a"));
+        assertEquals(3, table.size());
+        assertEquals("\u00fcn\u00efc\u00f6d\u00e9 \u266a", table.get(2));
+        assertEquals(1, table.indexOf("./data/440Hz.wav"));
+        assertEquals(-1, table.indexOf("b"));
+        try {
+            table.get(3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testGrowth() {
+        StringTable table = new StringTable();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, table.intern("song " + i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, table.indexOf("song " + i));
+            assertEquals("song " + i, table.get(i));
+        }
+        assertEquals(10000, table.size());
+        assertTrue(table.getByteCount() < 100000);
+    }
+}
@@ -0,0 +1,81 @@
+package model.audio;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for MappedPcmSource class
+public class MappedPcmSourceTest {
+    public static final String WAV_FILE = "./data/440Hz.wav";
+    public static final String NOT_PCM = "./data/shouldNotWork.ogg";
+    public static final int CHUNK = 4096;
+    private MappedPcmSource source;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            source = MappedPcmSource.open(new File(WAV_FILE));
+        } catch (Exception e) {
+            fail(); // should not happen
+        }
+    }
+
+    @Test
+    void testFormatMatchesAudioSystem() throws Exception {
+        assertNotNull(source);
+        AudioInputStream ais = AudioSystem.getAudioInputStream(new File(WAV_FILE));
+        AudioFormat expected = ais.getFormat();
+        assertTrue(expected.matches(source.getFormat()));
+        assertEquals(ais.getFrameLength(), source.getFrameLength());
+        assertEquals(0, source.getFramePosition());
+        ais.close();
+    }
+
+    @Test
+    void testReadMatchesAudioInputStream() throws Exception {
+        AudioInputStream ais = AudioSystem.getAudioInputStream(new File(WAV_FILE));
+        byte[] expected = new byte[CHUNK];
+        byte[] actual = new byte[CHUNK];
+        int read;
+        while ((read = ais.read(expected)) > 0) {
+            assertEquals(read, source.read(actual, 0, read));
+            for (int i = 0; i < read; i++) {
+                assertEquals(expected[i], actual[i]);
+            }
+        }
+        assertEquals(-1, source.read(actual, 0, CHUNK));
+        assertEquals(source.getFrameLength(), source.getFramePosition());
+        ais.close();
+    }
+
+    @Test
+    void testSeek() throws Exception {
+        int frameSize = source.getFormat().getFrameSize();
+        long frame = source.getFrameLength() / 2;
+        AudioInputStream ais = AudioSystem.getAudioInputStream(new File(WAV_FILE));
+        ais.skip(frame * frameSize);
+        byte[] expected = new byte[CHUNK];
+        byte[] actual = new byte[CHUNK];
+        ais.read(expected);
+        source.seek(frame);
+        assertEquals(frame, source.getFramePosition());
+        source.read(actual, 0, CHUNK);
+        assertArrayEquals(expected, actual);
+        source.seek(source.getFrameLength() + 100);
+        assertEquals(source.getFrameLength(), source.getFramePosition());
+        source.seek(-5);
+        assertEquals(0, source.getFramePosition());
+        ais.close();
+    }
+
+    @Test
+    void testNotPcm() throws Exception {
+        assertNull(MappedPcmSource.open(new File(NOT_PCM)));
+    }
+}
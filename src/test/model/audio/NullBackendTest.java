@@ -0,0 +1,60 @@
+package model.audio;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for NullBackend class
+public class NullBackendTest {
+    public static final int FRAME_SIZE = SoftwareMixer.MIX_FORMAT.getFrameSize();
+    public static final int BUFFER = 4410 * FRAME_SIZE; // 100 ms
+
+    @Test
+    void testUnthrottled() {
+        NullBackend backend = new NullBackend(false);
+        assertFalse(backend.isRealTime());
+        backend.open(SoftwareMixer.MIX_FORMAT, BUFFER);
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            backend.write(new byte[BUFFER], 0, BUFFER);
+        }
+        assertTrue(System.nanoTime() - start < 1000000000L); // 10 s of audio consumed at once
+        assertEquals(441000, backend.getFramePosition());
+        assertEquals(BUFFER, backend.available());
+        backend.close();
+    }
+
+    @Test
+    void testRealTime() {
+        NullBackend backend = new NullBackend(true);
+        assertTrue(backend.isRealTime());
+        backend.open(SoftwareMixer.MIX_FORMAT, BUFFER);
+        assertEquals(BUFFER, backend.getBufferSize());
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            backend.write(new byte[BUFFER], 0, BUFFER);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= 350000000L); // 500 ms of audio, at most 100 ms of which buffered
+        assertTrue(backend.getFramePosition() < 5 * 4410);
+        backend.drain();
+        assertEquals(5 * 4410, backend.getFramePosition());
+        assertEquals(BUFFER, backend.available());
+        backend.close();
+    }
+
+    @Test
+    void testStopAndFlush() {
+        NullBackend backend = new NullBackend(true);
+        backend.open(SoftwareMixer.MIX_FORMAT, BUFFER);
+        backend.stop();
+        backend.write(new byte[BUFFER], 0, BUFFER);
+        PlayerPoolTest.delay(50);
+        assertEquals(0, backend.getFramePosition());
+        assertEquals(0, backend.available());
+        backend.flush();
+        assertEquals(BUFFER, backend.available());
+        assertEquals(0, backend.getFramePosition());
+        backend.close();
+    }
+}
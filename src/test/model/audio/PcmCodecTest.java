@@ -0,0 +1,71 @@
+package model.audio;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for PcmCodec class
+public class PcmCodecTest {
+    public static final float ERROR = (float) 0.01;
+    public static final float[] SAMPLES = {0, (float) 0.5, (float) -0.5, (float) 0.99, -1};
+
+    // EFFECTS: returns a mono format with the given sample size, signedness and endianness
+    private static AudioFormat format(int bits, boolean signed, boolean bigEndian) {
+        AudioFormat.Encoding enc = signed ? AudioFormat.Encoding.PCM_SIGNED : AudioFormat.Encoding.PCM_UNSIGNED;
+        return new AudioFormat(enc, 44100, bits, 1, bits / 8, 44100, bigEndian);
+    }
+
+    // EFFECTS: asserts that every sample survives a write/read round trip in the given format
+    private static void assertRoundTrip(AudioFormat format) {
+        PcmCodec codec = new PcmCodec(format);
+        byte[] buf = new byte[codec.getBytesPerSample()];
+        for (float sample : SAMPLES) {
+            codec.write(buf, 0, sample);
+            assertEquals(sample, codec.read(buf, 0), ERROR);
+        }
+    }
+
+    @Test
+    void testRoundTrip() {
+        assertRoundTrip(format(8, false, false));
+        assertRoundTrip(format(8, true, false));
+        assertRoundTrip(format(16, true, false));
+        assertRoundTrip(format(16, true, true));
+        assertRoundTrip(format(24, true, false));
+        assertRoundTrip(format(32, true, true));
+    }
+
+    @Test
+    void testKnownBytes() {
+        PcmCodec codec = new PcmCodec(format(16, true, false));
+        byte[] buf = {0x00, 0x40, 0x00, (byte) 0x80};
+        assertEquals(0.5, codec.read(buf, 0), ERROR);
+        assertEquals(-1.0, codec.read(buf, 2), ERROR);
+        codec.write(buf, 0, (float) -0.5);
+        assertEquals(0x00, buf[0]);
+        assertEquals((byte) 0xC0, buf[1]);
+    }
+
+    @Test
+    void testClipping() {
+        PcmCodec codec = new PcmCodec(format(16, true, true));
+        byte[] buf = new byte[2];
+        codec.write(buf, 0, 3);
+        assertEquals(1.0, codec.read(buf, 0), ERROR);
+        codec.write(buf, 0, -3);
+        assertEquals(-1.0, codec.read(buf, 0), ERROR);
+    }
+
+    @Test
+    void testNotPcm() {
+        AudioFormat ulaw = new AudioFormat(AudioFormat.Encoding.ULAW, 8000, 8, 1, 1, 8000, false);
+        try {
+            new PcmCodec(ulaw);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
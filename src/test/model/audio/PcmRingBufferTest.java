@@ -0,0 +1,88 @@
+package model.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for PcmRingBuffer class
+public class PcmRingBufferTest {
+    public static final int CAPACITY = 8;
+    public static final int STREAM_BYTES = 1 << 20;
+
+    // EFFECTS: returns len bytes counting up from start
+    private static byte[] bytes(int start, int len) {
+        byte[] buf = new byte[len];
+        for (int i = 0; i < len; i++) {
+            buf[i] = (byte) (start + i);
+        }
+        return buf;
+    }
+
+    @Test
+    void testWriteRead() {
+        PcmRingBuffer ring = new PcmRingBuffer(CAPACITY, false);
+        assertEquals(0, ring.getFill());
+        assertEquals(5, ring.write(bytes(0, 5), 0, 5));
+        assertEquals(5, ring.getFill());
+        byte[] out = new byte[CAPACITY];
+        assertEquals(5, ring.read(out, 0, CAPACITY));
+        assertArrayEquals(bytes(0, 5), Arrays.copyOf(out, 5));
+        assertEquals(0, ring.read(out, 0, CAPACITY));
+        assertEquals(0, ring.getFill());
+    }
+
+    @Test
+    void testFullAndWrapAround() {
+        PcmRingBuffer ring = new PcmRingBuffer(CAPACITY, true);
+        assertTrue(ring.isOffHeap());
+        assertEquals(6, ring.write(bytes(0, 6), 0, 6));
+        byte[] out = new byte[CAPACITY];
+        assertEquals(4, ring.read(out, 0, 4));
+        assertEquals(6, ring.write(bytes(6, 10), 0, 10)); // only 6 bytes free, wrapping past the end
+        assertEquals(CAPACITY, ring.getFill());
+        assertEquals(0, ring.write(bytes(0, 1), 0, 1));
+        assertEquals(CAPACITY, ring.read(out, 0, CAPACITY));
+        assertArrayEquals(bytes(4, CAPACITY), out);
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        try {
+            new PcmRingBuffer(0, false);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testConcurrentProducerConsumer() throws InterruptedException {
+        PcmRingBuffer ring = new PcmRingBuffer(1000, false);
+        Thread producer = new Thread(() -> {
+            byte[] chunk = new byte[333];
+            int sent = 0;
+            while (sent < STREAM_BYTES) {
+                for (int i = 0; i < chunk.length; i++) {
+                    chunk[i] = (byte) (sent + i);
+                }
+                sent += ring.write(chunk, 0, Math.min(chunk.length, STREAM_BYTES - sent));
+            }
+        });
+        producer.start();
+        byte[] out = new byte[256];
+        int received = 0;
+        boolean inOrder = true;
+        while (received < STREAM_BYTES) {
+            int read = ring.read(out, 0, out.length);
+            for (int i = 0; i < read; i++) {
+                inOrder &= out[i] == (byte) (received + i);
+            }
+            received += read;
+        }
+        producer.join();
+        assertTrue(inOrder);
+        assertEquals(0, ring.getFill());
+    }
+}
@@ -0,0 +1,94 @@
+package model.audio;
+
+import model.SoundFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for PlayerPool class
+public class PlayerPoolTest {
+    public static final String FILE1 = "./data/cmajor.wav";
+    public static final String FILE2 = "./data/440Hz.wav";
+    public static final int DELAY = 300;
+    private PlayerPool pool;
+    private SoundFile sf1;
+    private SoundFile sf2;
+
+    // EFFECTS: Delays the current thread by time milliseconds
+    static void delay(long time) {
+        try {
+            Thread.sleep(time);
+        } catch (InterruptedException e) {
+            e.printStackTrace(); // should not happen
+        }
+    }
+
+    @BeforeEach
+    void runBefore() {
+        pool = PlayerPool.getInstance();
+        pool.setBudget(PlayerPool.DEFAULT_BUDGET);
+        pool.resetStats();
+        try {
+            sf1 = new SoundFile(FILE1);
+            sf2 = new SoundFile(FILE2);
+        } catch (Exception e) {
+            fail(); // should not happen
+        }
+    }
+
+    @AfterEach
+    void runAfter() {
+        sf1.release();
+        sf2.release();
+        pool.setBudget(PlayerPool.DEFAULT_BUDGET);
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        int open = pool.getOpenCount();
+        sf1.play();
+        sf1.stop();
+        assertEquals(1, pool.getMisses());
+        assertEquals(open + 1, pool.getOpenCount());
+        sf1.play();
+        sf1.stop();
+        assertEquals(1, pool.getMisses());
+        assertEquals(1, pool.getHits());
+        sf1.release();
+        assertEquals(open, pool.getOpenCount());
+        assertFalse(sf1.isOpen());
+    }
+
+    @Test
+    void testEviction() {
+        pool.setBudget(0); // evicts idle players left by other tests
+        pool.resetStats();
+        sf1.play();
+        sf1.stop();
+        assertTrue(sf1.isOpen());
+        sf2.play();
+        assertFalse(sf1.isOpen());
+        assertTrue(sf2.isOpen());
+        assertEquals(1, pool.getEvictions());
+        sf1.play();
+        delay(DELAY);
+        assertTrue(sf1.isPlaying());
+        assertEquals(3, pool.getMisses());
+        sf1.stop();
+        sf2.stop();
+    }
+
+    @Test
+    void testRunningNotEvicted() {
+        pool.setBudget(0);
+        pool.resetStats();
+        sf1.play();
+        sf2.play();
+        assertTrue(sf1.isOpen());
+        assertEquals(0, pool.getEvictions());
+        sf1.stop();
+        sf2.stop();
+    }
+}
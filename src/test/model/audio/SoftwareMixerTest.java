@@ -0,0 +1,112 @@
+package model.audio;
+
+import model.SoundFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.LineUnavailableException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for SoftwareMixer class
+public class SoftwareMixerTest {
+    public static final String FILE1 = "./data/cmajor.wav";
+    public static final String FILE2 = "./data/440Hz.wav";
+    public static final String FILE3 = "./data/1000 Hz.wav";
+    public static final int DELAY = 300;
+    private SoftwareMixer mixer;
+    private SoundFile sf1;
+    private SoundFile sf2;
+    private SoundFile sf3;
+
+    @BeforeEach
+    void runBefore() {
+        mixer = SoftwareMixer.getInstance();
+        try {
+            sf1 = new SoundFile(FILE1);
+            sf2 = new SoundFile(FILE2);
+            sf3 = new SoundFile(FILE3);
+        } catch (Exception e) {
+            fail(); // should not happen
+        }
+    }
+
+    @AfterEach
+    void runAfter() {
+        sf1.release();
+        sf2.release();
+        sf3.release();
+    }
+
+    @Test
+    void testAllVoicesShareOneLine() {
+        sf1.play();
+        sf2.play();
+        sf3.play();
+        assertTrue(mixer.isOpen());
+        assertTrue(mixer.getVoiceCount() >= 3); // other tests may have left voices playing out
+        PlayerPoolTest.delay(DELAY);
+        assertTrue(sf1.isPlaying());
+        assertTrue(sf2.isPlaying());
+        assertTrue(sf3.isPlaying());
+        sf1.stop();
+        sf2.stop();
+        sf3.stop();
+        assertFalse(sf1.isPlaying());
+        assertFalse(sf2.isPlaying());
+        assertFalse(sf3.isPlaying());
+    }
+
+    @Test
+    void testVoiceGainAndMute() {
+        sf1.play();
+        sf1.setVolume(-10);
+        sf1.mute();
+        assertEquals(-10, sf1.getVolume());
+        assertTrue(sf1.isMuted());
+        sf1.unmute();
+        assertFalse(sf1.isMuted());
+        assertTrue(sf1.isPlaying());
+        sf1.stop();
+    }
+
+    @Test
+    void testPositionAdvances() {
+        sf1.play();
+        PlayerPoolTest.delay(DELAY);
+        long position = sf1.getTimePosition();
+        assertTrue(position > 0);
+        assertTrue(position < sf1.length());
+        sf1.stop();
+    }
+
+    @Test
+    void testRingMetrics() {
+        SoftwareMixer custom = new SoftwareMixer(SoftwareMixer.MIX_FORMAT, 8, true, new NullBackend(false));
+        assertEquals(8 * SoftwareMixer.CYCLE_FRAMES, custom.getRingCapacityFrames());
+        assertEquals(0, custom.getRingFillFrames());
+        assertEquals(0, custom.getUnderruns());
+        assertFalse(custom.isOpen());
+        sf1.play();
+        PlayerPoolTest.delay(DELAY);
+        assertTrue(mixer.getRingFillFrames() > 0);
+        assertTrue(mixer.getRingFillFrames() <= mixer.getRingCapacityFrames());
+        sf1.stop();
+    }
+
+    @Test
+    void testClose() throws Exception {
+        SoftwareMixer custom = new SoftwareMixer(SoftwareMixer.MIX_FORMAT, new NullBackend(false));
+        custom.open();
+        assertTrue(custom.isOpen());
+        custom.close();
+        assertFalse(custom.isOpen());
+        try {
+            custom.open();
+            fail();
+        } catch (LineUnavailableException e) {
+            // expected
+        }
+    }
+}
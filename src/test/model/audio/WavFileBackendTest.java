@@ -0,0 +1,126 @@
+package model.audio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JUnit test for WavFileBackend class
+public class WavFileBackendTest {
+    public static final String FILE = "./data/cmajor.wav";
+    private File out;
+    private SoftwareMixer mixer;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            out = File.createTempFile("render", ".wav");
+        } catch (IOException e) {
+            fail(); // should not happen
+        }
+        mixer = new SoftwareMixer(SoftwareMixer.MIX_FORMAT, new WavFileBackend(out));
+    }
+
+    @AfterEach
+    void runAfter() {
+        mixer.close();
+        assertTrue(out.delete());
+    }
+
+    // EFFECTS: returns all sample bytes of the given audio file
+    private static byte[] readSamples(File file) throws Exception {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(file)) {
+            return readAll(in);
+        }
+    }
+
+    // EFFECTS: returns everything left in the stream
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        for (int read = in.read(buf); read != -1; read = in.read(buf)) {
+            all.write(buf, 0, read);
+        }
+        return all.toByteArray();
+    }
+
+    @Test
+    void testRenderIsBitExact() throws Exception {
+        StreamPlayer player = new StreamPlayer(new File(FILE), mixer);
+        CountDownLatch ended = new CountDownLatch(1);
+        player.setEndListener(p -> ended.countDown());
+        player.start(0);
+        assertTrue(ended.await(30, TimeUnit.SECONDS));
+        player.close();
+        mixer.close();
+        byte[] source = readSamples(new File(FILE));
+        byte[] rendered = readSamples(out);
+        AudioFormat format = AudioSystem.getAudioFileFormat(out).getFormat();
+        assertEquals(2, format.getChannels());
+        assertEquals(16, format.getSampleSizeInBits());
+        assertEquals(SoftwareMixer.MIX_FORMAT.getSampleRate(), format.getSampleRate());
+        assertTrue(rendered.length >= source.length * 2);
+        for (int i = 0; i < source.length; i += 2) {
+            for (int channel = 0; channel < 2; channel++) {
+                assertEquals(source[i], rendered[i * 2 + channel * 2]);
+                assertEquals(source[i + 1], rendered[i * 2 + channel * 2 + 1]);
+            }
+        }
+        for (int i = source.length * 2; i < rendered.length; i++) {
+            assertEquals(0, rendered[i]);
+        }
+    }
+
+    @Test
+    void testGaplessRenderHasNoUnderruns() throws Exception {
+        StreamPlayer player = new StreamPlayer(new File(FILE), mixer);
+        CountDownLatch switched = new CountDownLatch(1);
+        CountDownLatch ended = new CountDownLatch(1);
+        player.setEndListener(p -> ended.countDown());
+        player.start(0);
+        assertTrue(player.queueNext(new File(FILE), p -> switched.countDown()));
+        assertTrue(switched.await(30, TimeUnit.SECONDS));
+        assertTrue(ended.await(30, TimeUnit.SECONDS));
+        assertEquals(0, player.getTransitionUnderruns()); // the file waits for the mixer, so it never runs dry
+        assertEquals(0, mixer.getUnderruns());
+        assertFalse(mixer.isStarved());
+        player.close();
+    }
+
+    @Test
+    void testHeaderSizes() throws Exception {
+        WavFileBackend backend = new WavFileBackend(out);
+        assertEquals(out, backend.getFile());
+        backend.open(SoftwareMixer.MIX_FORMAT, 4096);
+        backend.write(new byte[400], 0, 400);
+        assertEquals(100, backend.getFramePosition());
+        backend.close();
+        assertEquals(44 + 400, out.length());
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(out)) {
+            assertEquals(100, in.getFrameLength());
+        }
+    }
+
+    @Test
+    void testUnsupportedFormat() {
+        AudioFormat bigEndian = new AudioFormat(44100, 16, 2, true, true);
+        try {
+            new WavFileBackend(out).open(bigEndian, 4096);
+            fail();
+        } catch (LineUnavailableException e) {
+            // expected
+        }
+    }
+}